@@ -1,23 +1,59 @@
 package com.yourorg.hardcorerevival;
 
 import com.yourorg.hardcorerevival.commands.HRCheckCommand;
+import com.yourorg.hardcorerevival.commands.HRClearCommand;
+import com.yourorg.hardcorerevival.commands.HRExportCommand;
+import com.yourorg.hardcorerevival.commands.HRHistoryCommand;
+import com.yourorg.hardcorerevival.commands.HRListCommand;
+import com.yourorg.hardcorerevival.commands.HRMetricsCommand;
 import com.yourorg.hardcorerevival.commands.HRReloadCommand;
+import com.yourorg.hardcorerevival.commands.HRReviveCommand;
+import com.yourorg.hardcorerevival.listeners.AltarChangeListener;
 import com.yourorg.hardcorerevival.listeners.AltarListener;
+import com.yourorg.hardcorerevival.listeners.AnvilListener;
+import com.yourorg.hardcorerevival.listeners.ChunkCooldownListener;
 import com.yourorg.hardcorerevival.listeners.DeathListener;
 import com.yourorg.hardcorerevival.listeners.JoinListener;
+import com.yourorg.hardcorerevival.util.AuditLog;
+import com.yourorg.hardcorerevival.util.ConfigReloader;
+import com.yourorg.hardcorerevival.util.DataExporter;
 import com.yourorg.hardcorerevival.util.DataStore;
+import com.yourorg.hardcorerevival.util.HistoryStore;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.PlayerDataScanner;
+import com.yourorg.hardcorerevival.util.PluginExecutor;
+import com.yourorg.hardcorerevival.util.PluginMetrics;
 import com.yourorg.hardcorerevival.util.RecipeRegistrar;
+import com.yourorg.hardcorerevival.util.RevivalTokens;
+import com.yourorg.hardcorerevival.util.RitualManager;
+import com.yourorg.hardcorerevival.util.ValidationCache;
 import org.bukkit.ChatColor;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+
 /**
  * Main entry point for HardcoreRevival. Registers listeners, commands,
- * recipes and handles configuration loading. Provides access to the
+ * recipes and handles configuration and message loading. Provides access to the
  * {@link DataStore} used to persist pending revives and cooldowns.
  */
 public class HardcoreRevivalPlugin extends JavaPlugin {
     private DataStore dataStore;
+    private RevivalTokens tokens;
+    private MessageService messages;
+    private AuditLog auditLog;
+    private HistoryStore history;
+    private DataExporter exporter;
+    private ConfigReloader configReloader;
+    private final PluginMetrics metrics = new PluginMetrics();
+    private PluginExecutor executor;
+    private ValidationCache validationCache;
+    private RitualManager rituals;
+    private PlayerDataScanner playerDataScanner;
+    // The config in use; swapped as a whole by applyConfig
+    private volatile FileConfiguration activeConfig;
 
     @Override
     public void onEnable() {
@@ -25,18 +61,56 @@ public class HardcoreRevivalPlugin extends JavaPlugin {
         saveDefaultConfig();
         // Save default files if they don't exist
         saveResource("config.yml", false);
+        // Flight recorder settings that enable the plugin's JFR events
+        if (!new File(getDataFolder(), "hardcorerevival.jfc").exists()) {
+            saveResource("hardcorerevival.jfc", false);
+        }
+        messages = new MessageService(this);
+        messages.rebuild();
+
+        // Virtual-thread executor for saves, lookups and queries
+        executor = new PluginExecutor(this);
 
         // Initialise data storage
         dataStore = new DataStore(this);
         dataStore.load();
+        tokens = new RevivalTokens(this);
+        validationCache = new ValidationCache(this);
+        rituals = new RitualManager(this);
+
+        // Start the background audit log writer
+        auditLog = new AuditLog(this);
+        auditLog.start();
+
+        // Load the death and revive history rollups
+        history = new HistoryStore(this);
+        history.load();
+        exporter = new DataExporter(this);
 
-        // Register crafting recipe
-        RecipeRegistrar.registerBlankHeadRecipe(this);
+        // Background config reloads, optionally triggered by file changes
+        configReloader = new ConfigReloader(this);
+        if (getConfig().getBoolean("reload.watchFile", false)) {
+            configReloader.startWatching();
+        }
+
+        // Register crafting recipes
+        RecipeRegistrar.registerRecipes(this);
 
         // Register listeners
         getServer().getPluginManager().registerEvents(new DeathListener(this), this);
         getServer().getPluginManager().registerEvents(new AltarListener(this), this);
-        getServer().getPluginManager().registerEvents(new JoinListener(this), this);
+        JoinListener joinListener = new JoinListener(this);
+        getServer().getPluginManager().registerEvents(joinListener, this);
+        getServer().getPluginManager().registerEvents(new AnvilListener(this), this);
+        getServer().getPluginManager().registerEvents(new AltarChangeListener(this), this);
+        if (dataStore.getChunkCooldowns() != null) {
+            getServer().getPluginManager().registerEvents(new ChunkCooldownListener(this), this);
+        }
+
+        // Find dead players the registry does not know about yet
+        joinListener.recordSpectators();
+        playerDataScanner = new PlayerDataScanner(this);
+        playerDataScanner.start();
 
         // Register commands
         PluginCommand reloadCmd = getCommand("hrreload");
@@ -47,24 +121,105 @@ public class HardcoreRevivalPlugin extends JavaPlugin {
         if (checkCmd != null) {
             checkCmd.setExecutor(new HRCheckCommand(this));
         }
+        PluginCommand metricsCmd = getCommand("hrmetrics");
+        if (metricsCmd != null) {
+            metricsCmd.setExecutor(new HRMetricsCommand(this));
+        }
+        PluginCommand listCmd = getCommand("hrlist");
+        if (listCmd != null) {
+            listCmd.setExecutor(new HRListCommand(this));
+        }
+        PluginCommand reviveCmd = getCommand("hrrevive");
+        if (reviveCmd != null) {
+            reviveCmd.setExecutor(new HRReviveCommand(this));
+        }
+        PluginCommand clearCmd = getCommand("hrclear");
+        if (clearCmd != null) {
+            clearCmd.setExecutor(new HRClearCommand(this));
+        }
+        PluginCommand historyCmd = getCommand("hrhistory");
+        if (historyCmd != null) {
+            historyCmd.setExecutor(new HRHistoryCommand(this));
+        }
+        PluginCommand exportCmd = getCommand("hrexport");
+        if (exportCmd != null) {
+            exportCmd.setExecutor(new HRExportCommand(this));
+        }
     }
 
     @Override
     public void onDisable() {
+        // Hand back the heads of rituals still channelling
+        if (rituals != null) {
+            rituals.cancelAll();
+        }
+        if (configReloader != null) {
+            configReloader.stopWatching();
+        }
         // Persist data on disable
         if (dataStore != null) {
-            dataStore.save();
+            dataStore.close();
+        }
+        if (history != null) {
+            history.close();
+        }
+        // Stop a running export at a point it can resume from
+        if (exporter != null) {
+            exporter.cancel();
+        }
+        if (playerDataScanner != null) {
+            playerDataScanner.cancel();
         }
+        // Wait for queued saves to reach disk
+        if (executor != null) {
+            executor.shutdown();
+        }
+        // Drain queued audit records
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        FileConfiguration config = activeConfig;
+        if (config == null) {
+            config = super.getConfig();
+            activeConfig = config;
+        }
+        return config;
+    }
+
+    @Override
+    public void reloadConfig() {
+        super.reloadConfig();
+        activeConfig = super.getConfig();
+    }
+
+    /**
+     * Swaps in an already parsed and validated configuration, then rebuilds
+     * the message templates and re-registers the blank head recipes. Invoked
+     * on the main thread by the {@link ConfigReloader}.
+     *
+     * @param config the new configuration
+     */
+    public void applyConfig(FileConfiguration config) {
+        activeConfig = config;
+        messages.rebuild();
+        // Cached failures were judged against the old settings
+        validationCache.clear();
+        // Re-register recipes; unchanged ones are skipped
+        RecipeRegistrar.registerRecipes(this);
     }
 
     /**
-     * Reloads configuration files and re-registers the blank head recipe.
-     * Invoked by the /hrreload command.
+     * Retrieves the reloader used by /hrreload to parse and validate config
+     * changes in the background.
+     *
+     * @return config reloader
      */
-    public void reload() {
-        reloadConfig();
-        // Re-register recipe with updated display name
-        RecipeRegistrar.registerBlankHeadRecipe(this);
+    public ConfigReloader getConfigReloader() {
+        return configReloader;
     }
 
     /**
@@ -77,37 +232,93 @@ public class HardcoreRevivalPlugin extends JavaPlugin {
     }
 
     /**
-     * Convenience method to colourise strings using the '&' colour codes.
+     * Retrieves the message service holding the pre-rendered messages.
      *
-     * @param input raw string with colour codes
-     * @return coloured string with Minecraft colour codes applied
+     * @return message service
      */
-    public String colour(String input) {
-        return ChatColor.translateAlternateColorCodes('&', input);
+    public MessageService getMessages() {
+        return messages;
     }
 
     /**
-     * Retrieves a message from the configuration and prepends the prefix.
-     * If the path does not exist, an empty string is returned.
+     * Retrieves the audit log that records revival attempts.
      *
-     * @param path the configuration path under the messages section
-     * @return coloured message with prefix
+     * @return audit log
      */
-    public String getMessage(String path) {
-        String prefix = getConfig().getString("messages.prefix", "");
-        String msg = getConfig().getString("messages." + path, "");
-        return colour(prefix + msg);
+    public AuditLog getAuditLog() {
+        return auditLog;
     }
 
     /**
-     * Retrieves a message without the prefix. Useful for command
-     * notifications where the prefix is added manually.
+     * Retrieves the history of deaths and revives used by /hrhistory.
      *
-     * @param path configuration path under messages
-     * @return coloured message
+     * @return history store
      */
-    public String getRawMessage(String path) {
-        String msg = getConfig().getString("messages." + path, "");
-        return colour(msg);
+    public HistoryStore getHistory() {
+        return history;
+    }
+
+    /**
+     * Retrieves the exporter used by /hrexport.
+     *
+     * @return data exporter
+     */
+    public DataExporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * Retrieves the executor that runs blocking work off the main thread.
+     *
+     * @return plugin executor
+     */
+    public PluginExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Retrieves the counters reported by /hrmetrics.
+     *
+     * @return plugin metrics
+     */
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retrieves the cache of recent altar validation failures.
+     *
+     * @return validation cache
+     */
+    public ValidationCache getValidationCache() {
+        return validationCache;
+    }
+
+    /**
+     * Retrieves the manager that channels active revival rituals.
+     *
+     * @return ritual manager
+     */
+    public RitualManager getRituals() {
+        return rituals;
+    }
+
+    /**
+     * Retrieves the helper used to stamp and verify revival tokens on heads.
+     *
+     * @return revival token helper
+     */
+    public RevivalTokens getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Convenience method to colourise strings using the '&' colour codes.
+     *
+     * @param input raw string with colour codes
+     * @return coloured string with Minecraft colour codes applied
+     */
+    public String colour(String input) {
+        return ChatColor.translateAlternateColorCodes('&', input);
     }
-}
\ No newline at end of file
+}
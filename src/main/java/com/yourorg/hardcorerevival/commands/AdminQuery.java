@@ -0,0 +1,347 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.DeadPlayerRegistry;
+import com.yourorg.hardcorerevival.util.PluginExecutor;
+import com.yourorg.hardcorerevival.util.UuidSet;
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Filtering, sorting and paging shared by the admin listing and bulk
+ * commands. Queries read the concurrent {@code DataStore} views from an async
+ * task so large data sets never block a tick; results are always handed back
+ * on the main thread.
+ *
+ * <p>Arguments are free-form tokens: a status (pending, dead, cooldowns or
+ * all), a page number, and any of world:&lt;name&gt;, player:&lt;name&gt;,
+ * age:&lt;min&gt;[-&lt;max&gt;] (e.g. 30m, 2h-7d), sort:age|name|world,
+ * order:asc|desc and confirm.</p>
+ *
+ * <p>Bulk commands first preview a selection. Confirming applies the rows
+ * that were previewed, not a fresh query, and only within
+ * {@link Confirmations#EXPIRY_MILLIS} of the preview and with the same
+ * filters.</p>
+ */
+final class AdminQuery {
+    static final int PAGE_SIZE = 10;
+
+    private AdminQuery() {
+    }
+
+    /**
+     * Kind of state a row was read from.
+     */
+    enum Status {
+        PENDING,
+        DEAD,
+        COOLDOWN
+    }
+
+    enum Sort {
+        AGE,
+        NAME,
+        WORLD
+    }
+
+    /**
+     * One listed entry. Cooldown rows have no player and use the altar
+     * location key as their name.
+     */
+    record Row(Status status, UUID player, String name, String world, long time) {
+    }
+
+    /**
+     * Parsed command arguments.
+     */
+    static final class Options {
+        Set<Status> statuses = EnumSet.noneOf(Status.class);
+        String world;
+        String player;
+        long minAgeMillis;
+        long maxAgeMillis = Long.MAX_VALUE;
+        Sort sort = Sort.AGE;
+        boolean descending;
+        int page = 1;
+        boolean confirm;
+        String error;
+    }
+
+    /**
+     * Selections previewed by one bulk command, kept per sender until they
+     * are confirmed or expire. Used on the main thread only.
+     */
+    static final class Confirmations {
+        static final long EXPIRY_MILLIS = 60_000L;
+
+        private final Map<String, Preview> previews = new HashMap<>();
+
+        private record Preview(String filters, List<Row> rows, long expiresAt) {
+        }
+
+        /**
+         * Remembers the rows previewed by a sender, replacing any earlier
+         * preview.
+         *
+         * @param sender sender who ran the preview
+         * @param args   command arguments of the preview
+         * @param rows   rows that matched
+         */
+        void put(CommandSender sender, String[] args, List<Row> rows) {
+            long now = System.currentTimeMillis();
+            previews.values().removeIf(preview -> preview.expiresAt() < now);
+            previews.put(key(sender), new Preview(filters(args), List.copyOf(rows), now + EXPIRY_MILLIS));
+        }
+
+        /**
+         * Removes and returns a sender's preview if it has not expired and
+         * was made with the same arguments, ignoring confirm.
+         *
+         * @param sender sender confirming
+         * @param args   command arguments of the confirmation
+         * @return the previewed rows, or null if there is nothing to confirm
+         */
+        List<Row> take(CommandSender sender, String[] args) {
+            Preview preview = previews.remove(key(sender));
+            if (preview == null || preview.expiresAt() < System.currentTimeMillis()
+                    || !preview.filters().equals(filters(args))) {
+                return null;
+            }
+            return preview.rows();
+        }
+
+        private static String key(CommandSender sender) {
+            return sender instanceof Player player ? player.getUniqueId().toString() : sender.getName();
+        }
+
+        private static String filters(String[] args) {
+            StringBuilder filters = new StringBuilder();
+            for (String arg : args) {
+                if (!arg.equalsIgnoreCase("confirm")) {
+                    filters.append(arg.toLowerCase(Locale.ROOT)).append(' ');
+                }
+            }
+            return filters.toString();
+        }
+    }
+
+    /**
+     * Parses filter tokens starting at the given index.
+     *
+     * @param args            command arguments
+     * @param start           index of the first token to parse
+     * @param defaultStatuses statuses used when none is given
+     * @return parsed options; {@link Options#error} is set on bad input
+     */
+    static Options parse(String[] args, int start, Set<Status> defaultStatuses) {
+        Options options = new Options();
+        for (int i = start; i < args.length; i++) {
+            String token = args[i].toLowerCase(Locale.ROOT);
+            int colon = token.indexOf(':');
+            String key = colon < 0 ? token : token.substring(0, colon);
+            String value = colon < 0 ? "" : args[i].substring(colon + 1);
+            switch (key) {
+                case "pending" -> options.statuses.add(Status.PENDING);
+                case "dead" -> options.statuses.add(Status.DEAD);
+                case "cooldown", "cooldowns" -> options.statuses.add(Status.COOLDOWN);
+                case "all" -> options.statuses.addAll(EnumSet.allOf(Status.class));
+                case "confirm" -> options.confirm = true;
+                case "world" -> options.world = value;
+                case "player" -> options.player = value;
+                case "age" -> {
+                    String[] range = value.split("-", 2);
+                    long min = parseDuration(range[0]);
+                    long max = range.length > 1 ? parseDuration(range[1]) : Long.MAX_VALUE;
+                    if (min < 0 || max < 0) {
+                        options.error = "Invalid age '" + value + "'. Use e.g. age:30m or age:1h-7d.";
+                    } else {
+                        options.minAgeMillis = min;
+                        options.maxAgeMillis = max;
+                    }
+                }
+                case "sort" -> {
+                    try {
+                        options.sort = Sort.valueOf(value.toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        options.error = "Invalid sort '" + value + "'. Use age, name or world.";
+                    }
+                }
+                case "order" -> options.descending = value.equalsIgnoreCase("desc");
+                default -> {
+                    try {
+                        options.page = Math.max(1, Integer.parseInt(token));
+                    } catch (NumberFormatException e) {
+                        options.error = "Unknown argument '" + args[i] + "'.";
+                    }
+                }
+            }
+        }
+        if (options.statuses.isEmpty()) {
+            options.statuses.addAll(defaultStatuses);
+        }
+        return options;
+    }
+
+    /**
+     * Collects, filters and sorts rows. Safe to call from an async task.
+     *
+     * @param plugin  plugin instance
+     * @param options parsed filters
+     * @return matching rows in display order
+     */
+    static List<Row> collect(HardcoreRevivalPlugin plugin, Options options) {
+        long now = System.currentTimeMillis();
+        UuidSet pending = plugin.getDataStore().getPendingRevives();
+        DeadPlayerRegistry deadPlayers = plugin.getDataStore().getDeadPlayers();
+        List<Row> rows = new ArrayList<>();
+        if (options.statuses.contains(Status.PENDING)) {
+            pending.forEach((msb, lsb) -> {
+                UUID uuid = new UUID(msb, lsb);
+                DeadPlayerRegistry.DeathRecord death = deadPlayers.get(uuid);
+                // Names come from the records; looking up profiles is not safe off the main thread
+                String name = death != null ? death.name() : uuid.toString();
+                String world = death != null ? death.world() : "";
+                long time = death != null ? death.time() : now;
+                addIfMatches(rows, options, now, new Row(Status.PENDING, uuid, name, world, time));
+            });
+        }
+        if (options.statuses.contains(Status.DEAD)) {
+            for (DeadPlayerRegistry.DeathRecord death : deadPlayers.getAll()) {
+                if (pending.contains(death.player())) {
+                    continue;
+                }
+                addIfMatches(rows, options, now,
+                        new Row(Status.DEAD, death.player(), death.name(), death.world(), death.time()));
+            }
+        }
+        if (options.statuses.contains(Status.COOLDOWN)) {
+            long cooldownMillis = plugin.getConfig().getLong("settings.cooldownSeconds", 0L) * 1000L;
+            for (Map.Entry<String, Long> entry : plugin.getDataStore().getCooldowns().entrySet()) {
+                // Only altars still cooling down are of interest
+                if (now - entry.getValue() >= cooldownMillis) {
+                    continue;
+                }
+                String key = entry.getKey();
+                int colon = key.indexOf(':');
+                String world = colon < 0 ? key : key.substring(0, colon);
+                addIfMatches(rows, options, now, new Row(Status.COOLDOWN, null, key, world, entry.getValue()));
+            }
+        }
+        Comparator<Row> order = switch (options.sort) {
+            case AGE -> Comparator.comparingLong(Row::time).reversed();
+            case NAME -> Comparator.comparing(Row::name, String.CASE_INSENSITIVE_ORDER);
+            case WORLD -> Comparator.comparing(Row::world).thenComparing(Row::name, String.CASE_INSENSITIVE_ORDER);
+        };
+        rows.sort(options.descending ? order.reversed() : order);
+        return rows;
+    }
+
+    private static void addIfMatches(List<Row> rows, Options options, long now, Row row) {
+        long age = now - row.time();
+        if (age < options.minAgeMillis || age > options.maxAgeMillis) {
+            return;
+        }
+        if (options.world != null && !options.world.equals(row.world())) {
+            return;
+        }
+        if (options.player != null && (row.player() == null || !options.player.equalsIgnoreCase(row.name()))) {
+            return;
+        }
+        rows.add(row);
+    }
+
+    /**
+     * Runs a query on the plugin executor and passes its result to a
+     * callback on the main thread.
+     *
+     * @param plugin   plugin instance
+     * @param query    work to run off the main thread
+     * @param callback receives the result on the main thread
+     * @param <T>      result type
+     */
+    static <T> void runAsync(HardcoreRevivalPlugin plugin, Supplier<T> query, Consumer<T> callback) {
+        PluginExecutor executor = plugin.getExecutor();
+        executor.thenOnMain(executor.supply(PluginExecutor.Resource.QUERY, query), callback);
+    }
+
+    /**
+     * Sends rendered lines to a sender, skipping players who have logged off
+     * while the query ran. Must be called on the main thread.
+     *
+     * @param sender recipient
+     * @param lines  lines to send
+     */
+    static void send(CommandSender sender, List<Component> lines) {
+        if (sender instanceof Player player && !player.isOnline()) {
+            return;
+        }
+        for (Component line : lines) {
+            sender.sendMessage(line);
+        }
+    }
+
+    /**
+     * Parses a duration such as 45s, 30m, 12h or 7d into milliseconds. A bare
+     * number is read as seconds.
+     *
+     * @param text duration text
+     * @return milliseconds, or -1 if the text is not a duration
+     */
+    static long parseDuration(String text) {
+        if (text.isEmpty()) {
+            return -1L;
+        }
+        char unit = Character.toLowerCase(text.charAt(text.length() - 1));
+        long multiplier = switch (unit) {
+            case 's' -> 1000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            default -> 0L;
+        };
+        String digits = multiplier == 0L ? text : text.substring(0, text.length() - 1);
+        try {
+            long amount = Long.parseLong(digits);
+            return amount < 0 ? -1L : amount * (multiplier == 0L ? 1000L : multiplier);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Formats a duration as its two largest units, e.g. 3d 4h or 12m 5s.
+     *
+     * @param millis duration in milliseconds
+     * @return formatted duration
+     */
+    static String formatAge(long millis) {
+        long seconds = Math.max(0L, millis / 1000L);
+        long days = seconds / 86_400L;
+        long hours = seconds / 3_600L % 24L;
+        long minutes = seconds / 60L % 60L;
+        long secs = seconds % 60L;
+        if (days > 0) {
+            return days + "d " + hours + "h";
+        }
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        }
+        if (minutes > 0) {
+            return minutes + "m " + secs + "s";
+        }
+        return secs + "s";
+    }
+}
@@ -1,6 +1,9 @@
 package com.yourorg.hardcorerevival.commands;
 
 import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.DeadPlayerRegistry;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.PluginExecutor;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
@@ -12,7 +15,9 @@ import java.util.UUID;
 
 /**
  * Handles the /hrcheck command. Checks whether a player is currently dead
- * (spectator), pending revival, or alive. Only available to admins.
+ * according to the dead player registry, pending revival, or alive. Names
+ * not in the server's user cache are looked up on the plugin executor. Only
+ * available to admins.
  */
 public class HRCheckCommand implements CommandExecutor {
     private final HardcoreRevivalPlugin plugin;
@@ -35,28 +40,44 @@ public class HRCheckCommand implements CommandExecutor {
             if (sender instanceof Player player) {
                 targetName = player.getName();
             } else {
-                sender.sendMessage(plugin.getRawMessage("errors.unknownPlayer"));
+                sender.sendMessage(plugin.getMessages().raw("errors.unknownPlayer"));
                 return true;
             }
         }
-        OfflinePlayer offline = Bukkit.getOfflinePlayer(targetName);
-        if (offline == null || offline.getName() == null) {
-            sender.sendMessage(plugin.getRawMessage("errors.unknownPlayer"));
+        OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(targetName);
+        if (cached != null) {
+            report(sender, cached);
             return true;
         }
+        // Unknown names may need a profile lookup, which blocks
+        PluginExecutor executor = plugin.getExecutor();
+        executor.thenOnMain(executor.supply(PluginExecutor.Resource.LOOKUP,
+                () -> Bukkit.getOfflinePlayer(targetName)), offline -> report(sender, offline));
+        return true;
+    }
+
+    private void report(CommandSender sender, OfflinePlayer offline) {
+        if (sender instanceof Player player && !player.isOnline()) {
+            return;
+        }
+        if (offline == null || offline.getName() == null) {
+            sender.sendMessage(plugin.getMessages().raw("errors.unknownPlayer"));
+            return;
+        }
         UUID uuid = offline.getUniqueId();
         boolean pending = plugin.getDataStore().isPendingRevive(uuid);
         if (pending) {
-            sender.sendMessage(plugin.getRawMessage("command.checkPending").replace("{player}", offline.getName()));
-            return true;
+            sender.sendMessage(plugin.getMessages().raw("command.checkPending", MessageService.player(offline.getName())));
+            return;
         }
-        // Check if online and spectator
-        Player targetOnline = Bukkit.getPlayer(uuid);
-        if (targetOnline != null && targetOnline.getGameMode() == org.bukkit.GameMode.SPECTATOR) {
-            sender.sendMessage(plugin.getRawMessage("command.checkDead").replace("{player}", targetOnline.getName()));
+        // Consult the dead player registry rather than the game mode
+        DeadPlayerRegistry.DeathRecord death = plugin.getDataStore().getDeadPlayers().get(uuid);
+        if (death != null) {
+            sender.sendMessage(plugin.getMessages().raw("command.checkDead", MessageService.player(offline.getName()),
+                    MessageService.arg(MessageService.Placeholder.WORLD, death.world()),
+                    MessageService.arg(MessageService.Placeholder.CAUSE, death.cause())));
         } else {
-            sender.sendMessage(plugin.getRawMessage("command.checkAlive").replace("{player}", offline.getName()));
+            sender.sendMessage(plugin.getMessages().raw("command.checkAlive", MessageService.player(offline.getName())));
         }
-        return true;
     }
 }
\ No newline at end of file
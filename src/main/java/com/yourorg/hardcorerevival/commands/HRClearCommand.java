@@ -0,0 +1,80 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.MessageService.Placeholder;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Handles the /hrclear command. Removes pending revives, dead player records
+ * or altar cooldowns matching the given filters. Matching runs off the main
+ * thread and nothing is removed until the command is repeated with confirm,
+ * which removes exactly the previewed entries. Only available to admins.
+ */
+public class HRClearCommand implements CommandExecutor {
+    private final HardcoreRevivalPlugin plugin;
+    private final AdminQuery.Confirmations confirmations = new AdminQuery.Confirmations();
+
+    public HRClearCommand(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("hardcorerevival.admin")) {
+            sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
+            return true;
+        }
+        AdminQuery.Options options = AdminQuery.parse(args, 0, EnumSet.noneOf(AdminQuery.Status.class));
+        if (options.error != null || options.statuses.isEmpty()) {
+            sender.sendMessage(plugin.colour(options.error != null ? "&c" + options.error
+                    : "&cUsage: /" + label + " <pending|dead|cooldowns|all> [filters] [confirm]"));
+            return true;
+        }
+        if (options.confirm) {
+            List<AdminQuery.Row> rows = confirmations.take(sender, args);
+            if (rows == null) {
+                sender.sendMessage(plugin.getMessages().raw("command.bulkNoPreview"));
+            } else {
+                clear(rows);
+                sender.sendMessage(plugin.getMessages().raw("command.bulkDone",
+                        MessageService.arg(Placeholder.COUNT, String.valueOf(rows.size()))));
+            }
+            return true;
+        }
+        AdminQuery.runAsync(plugin, () -> AdminQuery.collect(plugin, options), rows -> {
+            if (rows.isEmpty()) {
+                sender.sendMessage(plugin.getMessages().raw("command.listEmpty"));
+            } else {
+                confirmations.put(sender, args, rows);
+                sender.sendMessage(plugin.getMessages().raw("command.bulkPreview",
+                        MessageService.arg(Placeholder.COUNT, String.valueOf(rows.size()))));
+            }
+        });
+        return true;
+    }
+
+    private void clear(List<AdminQuery.Row> rows) {
+        List<UUID> pending = new ArrayList<>();
+        List<UUID> dead = new ArrayList<>();
+        List<String> cooldowns = new ArrayList<>();
+        for (AdminQuery.Row row : rows) {
+            switch (row.status()) {
+                case PENDING -> pending.add(row.player());
+                case DEAD -> dead.add(row.player());
+                case COOLDOWN -> cooldowns.add(row.name());
+            }
+        }
+        // One save per kind of state, however many entries are removed
+        plugin.getDataStore().removePendingRevives(pending);
+        plugin.getDataStore().getDeadPlayers().removeAll(dead);
+        plugin.getDataStore().removeCooldowns(cooldowns);
+    }
+}
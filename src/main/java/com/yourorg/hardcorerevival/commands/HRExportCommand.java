@@ -0,0 +1,74 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.DataExporter;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.MessageService.Placeholder;
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the /hrexport command. Streams the pending revives in pending.bin
+ * and the cooldowns and issued tokens in data.yml to export/data.jsonl or
+ * export/data.csv off the main thread, reporting progress as it goes. An
+ * interrupted export resumes from its last checkpoint unless restart is
+ * given. Only available to admins.
+ */
+public class HRExportCommand implements CommandExecutor {
+    private final HardcoreRevivalPlugin plugin;
+
+    public HRExportCommand(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("hardcorerevival.admin")) {
+            sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
+            return true;
+        }
+        MessageService messages = plugin.getMessages();
+        DataExporter.Format format = args.length > 0 ? DataExporter.Format.byName(args[0]) : null;
+        if (format == null) {
+            sender.sendMessage(messages.raw("command.exportUsage", MessageService.arg(Placeholder.ENTRY, label)));
+            return true;
+        }
+        boolean restart = args.length > 1 && args[1].equalsIgnoreCase("restart");
+        CompletableFuture<DataExporter.Result> export = plugin.getExporter().start(format, restart,
+                line -> report(sender, messages.raw("command.exportProgress",
+                        MessageService.arg(Placeholder.ENTRY, line))));
+        if (export == null) {
+            sender.sendMessage(messages.raw("command.exportRunning"));
+            return true;
+        }
+        sender.sendMessage(messages.raw("command.exportStarted",
+                MessageService.arg(Placeholder.ENTRY, format.name().toLowerCase(Locale.ROOT))));
+        plugin.getExecutor().thenOnMain(export, result -> {
+            MessageService.Arg entries = MessageService.arg(Placeholder.COUNT, String.valueOf(result.entries()));
+            if (result.interrupted()) {
+                report(sender, messages.raw("command.exportInterrupted", entries));
+                return;
+            }
+            report(sender, messages.raw(result.resumed() ? "command.exportResumed" : "command.exportDone",
+                    entries, MessageService.arg(Placeholder.ENTRY, result.file().getName())));
+            if (result.skipped() > 0) {
+                report(sender, messages.raw("command.exportSkipped",
+                        MessageService.arg(Placeholder.COUNT, String.valueOf(result.skipped()))));
+            }
+        });
+        return true;
+    }
+
+    private void report(CommandSender sender, Component line) {
+        if (sender instanceof Player player && !player.isOnline()) {
+            return;
+        }
+        sender.sendMessage(line);
+    }
+}
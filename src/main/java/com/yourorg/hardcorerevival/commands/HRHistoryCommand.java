@@ -0,0 +1,101 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.HistoryStore;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.MessageService.Placeholder;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handles the /hrhistory command. Shows deaths and revives per day or per
+ * hour, or ranks altars by revives and players by deaths over a number of
+ * days. Answers come from the history rollups, never from raw events. Only
+ * available to admins.
+ */
+public class HRHistoryCommand implements CommandExecutor {
+    private static final int TOP_LIMIT = 10;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+
+    private final HardcoreRevivalPlugin plugin;
+
+    public HRHistoryCommand(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("hardcorerevival.admin")) {
+            sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
+            return true;
+        }
+        String view = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "days";
+        int count = view.equals("hours") ? 24 : 7;
+        if (args.length > 1) {
+            try {
+                count = Math.max(1, Math.min(maxPeriods(view), Integer.parseInt(args[1])));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(plugin.getMessages().raw("command.historyInvalidCount",
+                        MessageService.arg(Placeholder.ENTRY, args[1])));
+                return true;
+            }
+        }
+        HistoryStore history = plugin.getHistory();
+        switch (view) {
+            case "days", "hours" -> sendTotals(sender, history.totals(view.equals("hours"), count), view, count);
+            case "altars" -> sendRanking(sender, history.topAltars(count, TOP_LIMIT),
+                    "top altars, last " + count + " days");
+            case "players" -> sendRanking(sender, history.topPlayers(count, TOP_LIMIT),
+                    "most deaths, last " + count + " days");
+            default -> sender.sendMessage(plugin.colour("&cUsage: /" + label
+                    + " [days|hours|altars|players] [count]"));
+        }
+        return true;
+    }
+
+    /**
+     * Largest count worth asking for: the periods the rollups still keep.
+     */
+    private int maxPeriods(String view) {
+        if (view.equals("hours")) {
+            return Math.max(1, plugin.getConfig().getInt("history.hourlyRetentionDays", 7)) * 24;
+        }
+        return Math.max(1, plugin.getConfig().getInt("history.dailyRetentionDays", 365));
+    }
+
+    private void sendTotals(CommandSender sender, List<HistoryStore.Period> periods, String view, int count) {
+        MessageService messages = plugin.getMessages();
+        boolean hourly = view.equals("hours");
+        DateTimeFormatter format = (hourly ? HOUR_FORMAT : DAY_FORMAT).withZone(ZoneId.systemDefault());
+        sender.sendMessage(messages.raw("command.historyHeader",
+                MessageService.arg(Placeholder.ENTRY, "last " + count + " " + view)));
+        for (HistoryStore.Period period : periods) {
+            sender.sendMessage(messages.raw("command.historyPeriod",
+                    MessageService.arg(Placeholder.ENTRY, format.format(Instant.ofEpochMilli(period.start()))),
+                    MessageService.arg(Placeholder.DEATHS, String.valueOf(period.deaths())),
+                    MessageService.arg(Placeholder.REVIVES, String.valueOf(period.revives()))));
+        }
+    }
+
+    private void sendRanking(CommandSender sender, List<HistoryStore.Ranked> ranked, String title) {
+        MessageService messages = plugin.getMessages();
+        if (ranked.isEmpty()) {
+            sender.sendMessage(messages.raw("command.historyEmpty"));
+            return;
+        }
+        sender.sendMessage(messages.raw("command.historyHeader", MessageService.arg(Placeholder.ENTRY, title)));
+        for (HistoryStore.Ranked entry : ranked) {
+            sender.sendMessage(messages.raw("command.historyRank",
+                    MessageService.arg(Placeholder.ENTRY, entry.name()),
+                    MessageService.arg(Placeholder.COUNT, String.valueOf(entry.count()))));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.MessageService.Placeholder;
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handles the /hrlist command. Lists pending revives, dead players and altars
+ * on cooldown one page at a time, with optional world, player and age
+ * filters and sorting. The query and page rendering run off the main
+ * thread. Only available to admins.
+ */
+public class HRListCommand implements CommandExecutor {
+    private final HardcoreRevivalPlugin plugin;
+
+    public HRListCommand(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("hardcorerevival.admin")) {
+            sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
+            return true;
+        }
+        AdminQuery.Options options = AdminQuery.parse(args, 0, EnumSet.allOf(AdminQuery.Status.class));
+        if (options.error != null) {
+            sender.sendMessage(plugin.colour("&c" + options.error));
+            return true;
+        }
+        AdminQuery.runAsync(plugin, () -> renderPage(AdminQuery.collect(plugin, options), options.page),
+                lines -> AdminQuery.send(sender, lines));
+        return true;
+    }
+
+    private List<Component> renderPage(List<AdminQuery.Row> rows, int page) {
+        MessageService messages = plugin.getMessages();
+        List<Component> lines = new ArrayList<>();
+        if (rows.isEmpty()) {
+            lines.add(messages.raw("command.listEmpty"));
+            return lines;
+        }
+        int pages = (rows.size() + AdminQuery.PAGE_SIZE - 1) / AdminQuery.PAGE_SIZE;
+        int current = Math.min(page, pages);
+        lines.add(messages.raw("command.listHeader",
+                MessageService.arg(Placeholder.COUNT, String.valueOf(rows.size())),
+                MessageService.arg(Placeholder.PAGE, String.valueOf(current)),
+                MessageService.arg(Placeholder.PAGES, String.valueOf(pages))));
+        long now = System.currentTimeMillis();
+        int from = (current - 1) * AdminQuery.PAGE_SIZE;
+        int to = Math.min(rows.size(), from + AdminQuery.PAGE_SIZE);
+        for (AdminQuery.Row row : rows.subList(from, to)) {
+            lines.add(messages.raw("command.listEntry",
+                    MessageService.arg(Placeholder.ENTRY, row.name()),
+                    MessageService.arg(Placeholder.STATUS, row.status().name().toLowerCase(Locale.ROOT)),
+                    MessageService.arg(Placeholder.WORLD, row.world()),
+                    MessageService.arg(Placeholder.AGE, AdminQuery.formatAge(now - row.time()))));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,39 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.Map;
+
+/**
+ * Handles the /hrmetrics command. Prints the plugin's internal counters,
+ * such as validation cache hits and rate-limited attempts. Only available to
+ * admins.
+ */
+public class HRMetricsCommand implements CommandExecutor {
+    private final HardcoreRevivalPlugin plugin;
+
+    public HRMetricsCommand(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("hardcorerevival.admin")) {
+            sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
+            return true;
+        }
+        Map<String, Long> counters = plugin.getMetrics().snapshot();
+        if (counters.isEmpty()) {
+            sender.sendMessage(plugin.colour("&7No metrics recorded yet."));
+            return true;
+        }
+        sender.sendMessage(plugin.colour("&6HardcoreRevival metrics:"));
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            sender.sendMessage(plugin.colour("&e" + entry.getKey() + "&7: &f" + entry.getValue()));
+        }
+        return true;
+    }
+}
@@ -7,9 +7,10 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 /**
- * Handles the /hrreload command. Reloads the plugin configuration and
- * re-registers the crafting recipe. Requires the hardcorerevival.admin
- * permission.
+ * Handles the /hrreload command. Parses and validates the plugin
+ * configuration in the background and, if it is valid, applies it and
+ * re-registers the crafting recipes. The sender receives the changed keys or
+ * the validation errors. Requires the hardcorerevival.admin permission.
  */
 public class HRReloadCommand implements CommandExecutor {
     private final HardcoreRevivalPlugin plugin;
@@ -24,8 +25,7 @@ public class HRReloadCommand implements CommandExecutor {
             sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
             return true;
         }
-        plugin.reload();
-        sender.sendMessage(plugin.getRawMessage("command.reload"));
+        plugin.getConfigReloader().reload(sender);
         return true;
     }
 }
\ No newline at end of file
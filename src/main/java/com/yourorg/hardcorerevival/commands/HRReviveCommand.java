@@ -0,0 +1,110 @@
+package com.yourorg.hardcorerevival.commands;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.listeners.JoinListener;
+import com.yourorg.hardcorerevival.util.DataStore;
+import com.yourorg.hardcorerevival.util.MessageService;
+import com.yourorg.hardcorerevival.util.MessageService.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Handles the /hrrevive command. Revives one dead player by name, or every
+ * dead player matching the given filters when "all" is used. Matching runs
+ * off the main thread; bulk revives only apply once repeated with confirm,
+ * and then only to the previewed players.
+ * Online players are revived at their respawn point, offline players are
+ * marked pending. Only available to admins.
+ */
+public class HRReviveCommand implements CommandExecutor {
+    private final HardcoreRevivalPlugin plugin;
+    private final AdminQuery.Confirmations confirmations = new AdminQuery.Confirmations();
+
+    public HRReviveCommand(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("hardcorerevival.admin")) {
+            sender.sendMessage(plugin.colour("&cYou do not have permission to run this command."));
+            return true;
+        }
+        if (args.length == 0) {
+            sender.sendMessage(plugin.colour("&cUsage: /" + label + " <player|all> [filters] [confirm]"));
+            return true;
+        }
+        AdminQuery.Options options = AdminQuery.parse(args, 1, EnumSet.of(AdminQuery.Status.DEAD));
+        if (options.error != null) {
+            sender.sendMessage(plugin.colour("&c" + options.error));
+            return true;
+        }
+        // Only players who are dead and not already pending can be revived
+        options.statuses = EnumSet.of(AdminQuery.Status.DEAD);
+        boolean bulk = args[0].equalsIgnoreCase("all");
+        if (!bulk) {
+            options.player = args[0];
+            options.confirm = true;
+        } else if (options.confirm) {
+            List<AdminQuery.Row> rows = confirmations.take(sender, args);
+            if (rows == null) {
+                sender.sendMessage(plugin.getMessages().raw("command.bulkNoPreview"));
+            } else {
+                int revived = revive(rows, sender.getName());
+                sender.sendMessage(plugin.getMessages().raw("command.bulkDone",
+                        MessageService.arg(Placeholder.COUNT, String.valueOf(revived))));
+            }
+            return true;
+        }
+        AdminQuery.runAsync(plugin, () -> AdminQuery.collect(plugin, options), rows -> {
+            if (rows.isEmpty()) {
+                sender.sendMessage(plugin.getMessages().raw("command.listEmpty"));
+            } else if (bulk) {
+                confirmations.put(sender, args, rows);
+                sender.sendMessage(plugin.getMessages().raw("command.bulkPreview",
+                        MessageService.arg(Placeholder.COUNT, String.valueOf(rows.size()))));
+            } else {
+                int revived = revive(rows, sender.getName());
+                sender.sendMessage(plugin.getMessages().raw("command.bulkDone",
+                        MessageService.arg(Placeholder.COUNT, String.valueOf(revived))));
+            }
+        });
+        return true;
+    }
+
+    private int revive(List<AdminQuery.Row> rows, String reviver) {
+        DataStore store = plugin.getDataStore();
+        List<UUID> offline = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        int revived = 0;
+        for (AdminQuery.Row row : rows) {
+            UUID uuid = row.player();
+            // State may have changed while the query ran
+            if (!store.getDeadPlayers().isDead(uuid) || store.isPendingRevive(uuid)) {
+                continue;
+            }
+            Player online = Bukkit.getPlayer(uuid);
+            if (online != null) {
+                Location spawn = online.getRespawnLocation();
+                online.teleport(spawn != null ? spawn : Bukkit.getWorlds().get(0).getSpawnLocation());
+                store.getDeadPlayers().remove(uuid);
+                JoinListener.revivePlayer(online);
+            } else {
+                offline.add(uuid);
+            }
+            plugin.getHistory().recordRevive(uuid, row.name(), "command", reviver, now);
+            revived++;
+        }
+        store.addPendingRevives(offline);
+        return revived;
+    }
+}
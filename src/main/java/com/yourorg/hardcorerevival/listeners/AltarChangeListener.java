@@ -0,0 +1,117 @@
+package com.yourorg.hardcorerevival.listeners;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.block.Chest;
+import org.bukkit.block.DoubleChest;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.Inventory;
+
+import java.util.List;
+
+/**
+ * Watches for block and chest changes that could affect an altar and drops
+ * the matching cached validation failures, so a repaired or restocked altar
+ * is validated again on the next attempt. Active rituals on the changed
+ * altar are flagged so the ritual ticker re-checks them.
+ */
+public class AltarChangeListener implements Listener {
+    private final HardcoreRevivalPlugin plugin;
+
+    public AltarChangeListener(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        changed(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        changed(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        // Pushed blocks leave their old position and arrive one block further
+        for (Block block : event.getBlocks()) {
+            changed(block);
+            changed(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        for (Block block : event.getBlocks()) {
+            changed(block);
+            changed(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        invalidateInventory(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        invalidateInventory(event.getSource());
+        invalidateInventory(event.getDestination());
+    }
+
+    private void invalidateAll(List<Block> blocks) {
+        for (Block block : blocks) {
+            changed(block);
+        }
+    }
+
+    private void changed(Block block) {
+        plugin.getValidationCache().invalidate(block);
+        plugin.getRituals().markDirty(block.getLocation());
+    }
+
+    private void changed(Location location) {
+        plugin.getValidationCache().invalidate(location);
+        plugin.getRituals().markDirty(location);
+    }
+
+    private void invalidateInventory(Inventory inventory) {
+        // Skip the holder lookup entirely while nothing is cached or channelling
+        if (plugin.getValidationCache().isEmpty() && plugin.getRituals().isEmpty()) {
+            return;
+        }
+        if (inventory.getHolder() instanceof DoubleChest doubleChest) {
+            // A double chest reports its midpoint; invalidate around both halves
+            if (doubleChest.getLeftSide() instanceof Chest left) {
+                changed(left.getBlock());
+            }
+            if (doubleChest.getRightSide() instanceof Chest right) {
+                changed(right.getBlock());
+            }
+            return;
+        }
+        changed(inventory.getLocation());
+    }
+}
@@ -2,61 +2,91 @@ package com.yourorg.hardcorerevival.listeners;
 
 import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
 import com.yourorg.hardcorerevival.util.AltarValidator;
-import com.yourorg.hardcorerevival.util.EffectsUtil;
+import com.yourorg.hardcorerevival.util.AttemptLimiter;
+import com.yourorg.hardcorerevival.util.RevivalTokens;
+import com.yourorg.hardcorerevival.util.RitualManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.NamespacedKey;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.entity.Player;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Listens for placement of player heads. When a head is placed on top of a
- * fence over a valid altar structure, it attempts to revive the targeted
- * player. Handles structure validation, target resolution, item consumption,
- * effects, and broadcast messaging.
+ * fence over a valid altar structure, it validates the altar and resolves
+ * the targeted player, then hands the attempt to the {@link RitualManager},
+ * which channels the ritual and performs the revive. Also keeps ritual heads
+ * from dropping as items, since a cancelled ritual returns the head itself.
  */
 public class AltarListener implements Listener {
     private final HardcoreRevivalPlugin plugin;
+    private final AttemptLimiter limiter;
 
     public AltarListener(HardcoreRevivalPlugin plugin) {
         this.plugin = plugin;
+        this.limiter = new AttemptLimiter(plugin);
     }
 
-    @EventHandler
+    // Runs after protection plugins: a cancelled placement is reverted, and
+    // the ritual would otherwise hand back a head that was never taken
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
+        if (!event.canBuild()) {
+            return;
+        }
         Block placed = event.getBlockPlaced();
         Material placedType = placed.getType();
         // Check if a player head has been placed (wall or standing)
         if (placedType != Material.PLAYER_HEAD && placedType != Material.PLAYER_WALL_HEAD) {
             return;
         }
+        long startNanos = System.nanoTime();
         Player placer = event.getPlayer();
         // Ensure there is a fence below the head
         Block fenceBlock = placed.getRelative(0, -1, 0);
+        // The altar centre sits directly below the fence
+        String altarKey = serialiseLocationKey(fenceBlock.getLocation().subtract(0, 1, 0));
         if (!isAcceptableFence(fenceBlock.getType())) {
-            placer.sendMessage(plugin.getMessage("errors.notOnFence"));
-            plugin.getLogger().info("Altar placement failed: head not on fence by " + placer.getName());
+            fail(placer, null, altarKey, "notOnFence", startNanos);
+            return;
+        }
+
+        // Throttle players spamming heads before doing any real work
+        if (!limiter.tryAcquire(placer.getUniqueId())) {
+            fail(placer, null, altarKey, "tooManyAttempts", startNanos);
+            return;
+        }
+
+        // A recent failure on this altar still stands until its footprint changes
+        String cachedError = plugin.getValidationCache().getFailure(altarKey);
+        if (cachedError != null) {
+            fail(placer, null, altarKey, cachedError, startNanos);
             return;
         }
 
         // Validate altar structure and chest contents
         AltarValidator.ValidationResult result = AltarValidator.validate(fenceBlock, plugin);
         if (!result.valid) {
-            placer.sendMessage(plugin.getMessage("errors." + result.errorKey));
-            plugin.getLogger().info("Altar validation failed at " + fenceBlock.getLocation() + ": " + result.errorKey);
+            plugin.getValidationCache().putFailure(altarKey, result.errorKey);
+            fail(placer, null, altarKey, result.errorKey, startNanos);
             return;
         }
 
@@ -64,112 +94,167 @@ public class AltarListener implements Listener {
         long cooldownSeconds = plugin.getConfig().getLong("settings.cooldownSeconds", 0L);
         if (cooldownSeconds > 0) {
             // Use centre location to key cooldowns
-            Location centre = result.descriptor.getCentre();
-            String key = serialiseLocationKey(centre);
-            long last = plugin.getDataStore().getCooldown(key);
+            long last = plugin.getDataStore().getCooldown(altarKey);
             long now = System.currentTimeMillis();
             long elapsed = (now - last) / 1000L;
             if (last > 0 && elapsed < cooldownSeconds) {
-                placer.sendMessage(plugin.getMessage("errors.cooldownActive"));
+                fail(placer, null, altarKey, "cooldownActive", startNanos);
                 return;
             }
         }
 
-        // Determine the target player from the head meta
+        // Determine the target player from the token stamped on the head
         ItemStack handItem = event.getItemInHand();
+        RevivalTokens.Token token = plugin.getTokens().read(handItem);
         String targetName = null;
         UUID targetUUID = null;
-        boolean foundValidTarget = false;
-        if (handItem != null && handItem.getType() == Material.PLAYER_HEAD) {
-            ItemMeta meta = handItem.getItemMeta();
-            if (meta instanceof SkullMeta skullMeta) {
-                // Try owner profile first (real player head)
-                if (skullMeta.hasOwningPlayer()) {
-                    OfflinePlayer owner = skullMeta.getOwningPlayer();
-                    if (owner != null && owner.getName() != null) {
-                        targetName = owner.getName();
-                        targetUUID = owner.getUniqueId();
-                        foundValidTarget = true;
-                    }
-                }
-                // Fallback to display name (blank head renamed)
-                if (!foundValidTarget) {
-                    String displayName = meta.hasDisplayName() ? ChatColor.stripColor(meta.getDisplayName()) : null;
-                    if (displayName != null) {
-                        String trimmed = displayName.trim();
-                        if (!trimmed.isEmpty()) {
-                            OfflinePlayer offline = Bukkit.getOfflinePlayer(trimmed);
-                            if (offline != null && offline.getName() != null) {
-                                targetName = offline.getName();
-                                targetUUID = offline.getUniqueId();
-                                foundValidTarget = true;
-                            }
-                        }
-                    }
-                }
+        if (token != null) {
+            if (!plugin.getTokens().isValid(token)) {
+                fail(placer, token.targetName(), altarKey, "tokenInvalid", startNanos);
+                return;
+            }
+            targetName = token.targetName();
+            targetUUID = token.target();
+        } else if (plugin.getConfig().getBoolean("tokens.allowLegacyHeads", false)) {
+            OfflinePlayer legacy = resolveLegacyTarget(handItem);
+            if (legacy != null) {
+                targetName = legacy.getName();
+                targetUUID = legacy.getUniqueId();
             }
         }
-        if (!foundValidTarget || targetUUID == null) {
-            placer.sendMessage(plugin.getMessage("errors.headNotNamed"));
+        if (targetUUID == null) {
+            fail(placer, null, altarKey, "headNotNamed", startNanos);
             return;
         }
 
-        // Check if target is dead (spectator) or pending revive
+        // Check the target is recorded as dead and not already pending revive
+        if (plugin.getDataStore().isPendingRevive(targetUUID)) {
+            fail(placer, targetName, altarKey, "alreadyPending", startNanos);
+            return;
+        }
+        if (!plugin.getDataStore().getDeadPlayers().isDead(targetUUID)) {
+            fail(placer, targetName, altarKey, "playerNotDead", startNanos);
+            return;
+        }
         boolean enableOffline = plugin.getConfig().getBoolean("settings.enableOfflineRevive", true);
-        boolean isPending = plugin.getDataStore().isPendingRevive(targetUUID);
         Player targetPlayer = Bukkit.getPlayer(targetUUID);
-        if (targetPlayer != null) {
-            if (targetPlayer.getGameMode() != GameMode.SPECTATOR) {
-                // Player is online and not in spectator
-                placer.sendMessage(plugin.getMessage("errors.playerNotDead"));
-                return;
-            }
-        } else {
-            // target offline
-            if (!enableOffline) {
-                placer.sendMessage(plugin.getMessage("errors.playerNotDead"));
-                return;
-            }
-            // Only allow if they are pending or we know they have died (we can't detect). We'll allow offline even if not pending.
+        if (targetPlayer == null && !enableOffline) {
+            fail(placer, targetName, altarKey, "playerNotDead", startNanos);
+            return;
         }
 
-        // All validations passed; proceed with revival
-        // Consume chest items if enabled
-        if (plugin.getConfig().getBoolean("settings.consumeItems", true)) {
-            AltarValidator.consumeChestItems(result.descriptor.getChestInventories());
+        // A second altar may not channel for the same target at once
+        if (plugin.getRituals().isChannelling(targetUUID)) {
+            fail(placer, targetName, altarKey, "ritualInProgress", startNanos);
+            return;
         }
-        // Remove head placed
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                placed.setType(Material.AIR);
-            }
-        }.runTask(plugin);
 
-        // Spawn effects
-        EffectsUtil.spawnParticles(plugin, result.descriptor.getCentre().clone().add(0.5, 1.5, 0.5));
-        EffectsUtil.playSounds(plugin, result.descriptor.getCentre().clone().add(0.5, 1.5, 0.5));
-        EffectsUtil.spawnLightning(plugin, result.descriptor.getCentre().clone().add(0.5, 0.0, 0.5));
+        // All validations passed; the revive completes when the ritual does
+        plugin.getRituals().begin(placer, placed, handItem, token, targetUUID, targetName, altarKey,
+                elapsedMicros(startNanos));
+    }
 
-        // Set cooldown timestamp
-        if (cooldownSeconds > 0) {
-            String key = serialiseLocationKey(result.descriptor.getCentre());
-            plugin.getDataStore().setCooldown(key, System.currentTimeMillis());
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        // The ritual returns the original head when it is cancelled
+        if (plugin.getRituals().isRitualHead(event.getBlock())) {
+            event.setDropItems(false);
         }
+    }
 
-        // Process revival
-        if (targetPlayer != null) {
-            // Online spectator
-            reviveOnlinePlayer(targetPlayer, result.descriptor.getCentre());
-        } else {
-            // Offline player; mark pending
-            plugin.getDataStore().addPendingRevive(targetUUID);
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        protectRitualHeads(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        protectRitualHeads(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        // A pushed head would break and drop on top of the one the ritual returns
+        if (movesRitualHead(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        if (movesRitualHead(event.getBlocks())) {
+            event.setCancelled(true);
         }
+    }
 
-        // Broadcast success
-        String message = plugin.getMessage("success.revive").replace("{player}", targetName);
-        Bukkit.getServer().broadcastMessage(message);
-        plugin.getLogger().info(placer.getName() + " revived " + targetName + " at " + result.descriptor.getCentre());
+    private boolean movesRitualHead(List<Block> blocks) {
+        if (plugin.getRituals().isEmpty()) {
+            return false;
+        }
+        for (Block block : blocks) {
+            if (plugin.getRituals().isRitualHead(block)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void protectRitualHeads(List<Block> blocks) {
+        if (!plugin.getRituals().isEmpty()) {
+            blocks.removeIf(block -> plugin.getRituals().isRitualHead(block));
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        limiter.forget(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Tells the placer why the attempt failed and records it in the audit log.
+     */
+    private void fail(Player placer, String targetName, String altarKey, String errorKey, long startNanos) {
+        plugin.getMessages().send(placer, "errors." + errorKey);
+        plugin.getAuditLog().failure(placer.getName(), placer.getUniqueId(), targetName, altarKey, errorKey,
+                elapsedMicros(startNanos));
+    }
+
+    private static long elapsedMicros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000L;
+    }
+
+    /**
+     * Resolves the target of a head issued before revival tokens existed,
+     * using the owning profile or the anvil display name.
+     */
+    private static OfflinePlayer resolveLegacyTarget(ItemStack handItem) {
+        if (handItem == null || handItem.getType() != Material.PLAYER_HEAD) {
+            return null;
+        }
+        ItemMeta meta = handItem.getItemMeta();
+        if (!(meta instanceof SkullMeta skullMeta)) {
+            return null;
+        }
+        // Try owner profile first (real player head)
+        if (skullMeta.hasOwningPlayer()) {
+            OfflinePlayer owner = skullMeta.getOwningPlayer();
+            if (owner != null && owner.getName() != null) {
+                return owner;
+            }
+        }
+        // Fallback to display name (blank head renamed)
+        String displayName = meta.hasDisplayName() ? ChatColor.stripColor(meta.getDisplayName()) : null;
+        if (displayName != null) {
+            String trimmed = displayName.trim();
+            if (!trimmed.isEmpty()) {
+                // Only consult the user cache; a profile lookup would block the event
+                OfflinePlayer offline = Bukkit.getOfflinePlayerIfCached(trimmed);
+                if (offline != null && offline.getName() != null) {
+                    return offline;
+                }
+            }
+        }
+        return null;
     }
 
     private static boolean isAcceptableFence(Material type) {
@@ -181,12 +266,4 @@ public class AltarListener implements Listener {
     private static String serialiseLocationKey(Location loc) {
         return loc.getWorld().getName() + ":" + loc.getBlockX() + ":" + loc.getBlockY() + ":" + loc.getBlockZ();
     }
-
-    private void reviveOnlinePlayer(Player target, Location centre) {
-        // Teleport to centre + one block up (just above the altar) to avoid suffocation
-        Location tp = centre.clone().add(0.5, 1.1, 0.5);
-        target.teleport(tp);
-        // Use the static revive logic from JoinListener
-        JoinListener.revivePlayer(target);
-    }
 }
\ No newline at end of file
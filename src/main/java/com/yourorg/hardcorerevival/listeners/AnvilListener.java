@@ -0,0 +1,99 @@
+package com.yourorg.hardcorerevival.listeners;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.RevivalTokens;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.PrepareAnvilEvent;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Stamps revival tokens onto blank heads renamed in an anvil. The target is
+ * resolved once from the rename text when the anvil result is prepared, and
+ * the token is recorded as issued once the player has taken the result.
+ * Only single heads are stamped, since every head in a stack would share
+ * one token.
+ */
+public class AnvilListener implements Listener {
+    private static final int RESULT_SLOT = 2;
+
+    private final HardcoreRevivalPlugin plugin;
+
+    public AnvilListener(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler
+    public void onPrepareAnvil(PrepareAnvilEvent event) {
+        ItemStack first = event.getInventory().getFirstItem();
+        ItemStack result = event.getResult();
+        if (result == null || !plugin.getTokens().isBlank(first)) {
+            return;
+        }
+        if (first.getAmount() > 1) {
+            event.setResult(null);
+            return;
+        }
+        String renameText = event.getView().getRenameText();
+        if (renameText == null || renameText.trim().isEmpty()) {
+            return;
+        }
+        // Only consult the local profile cache; unknown names stay blank
+        OfflinePlayer target = Bukkit.getOfflinePlayerIfCached(renameText.trim());
+        if (target == null || target.getName() == null) {
+            return;
+        }
+        ItemStack stamped = result.clone();
+        ItemMeta meta = stamped.getItemMeta();
+        plugin.getTokens().stamp(meta, target.getUniqueId(), target.getName());
+        stamped.setItemMeta(meta);
+        event.setResult(stamped);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTakeResult(InventoryClickEvent event) {
+        if (!(event.getInventory() instanceof AnvilInventory anvil) || event.getRawSlot() != RESULT_SLOT) {
+            return;
+        }
+        // Only tokens stamped from a blank head here are recorded; anything
+        // else in the result slot was not issued by this listener
+        if (!plugin.getTokens().isBlank(anvil.getFirstItem())) {
+            return;
+        }
+        RevivalTokens.Token token = plugin.getTokens().read(event.getCurrentItem());
+        if (token == null || !(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        // The click may take nothing, e.g. without enough levels or with a
+        // full inventory, so look for the head once the click has applied
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (holds(player, token)) {
+                plugin.getTokens().register(token);
+            }
+        });
+    }
+
+    private boolean holds(Player player, RevivalTokens.Token token) {
+        if (hasToken(player.getItemOnCursor(), token)) {
+            return true;
+        }
+        for (ItemStack item : player.getInventory().getContents()) {
+            if (hasToken(item, token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasToken(ItemStack item, RevivalTokens.Token token) {
+        RevivalTokens.Token held = plugin.getTokens().read(item);
+        return held != null && held.id() == token.id();
+    }
+}
@@ -0,0 +1,34 @@
+package com.yourorg.hardcorerevival.listeners;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.ChunkCooldowns;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+/**
+ * Keeps the altar cooldowns held in memory in step with the loaded chunks
+ * when cooldowns are stored in chunk data. Only registered in that mode.
+ */
+public class ChunkCooldownListener implements Listener {
+    private final ChunkCooldowns cooldowns;
+
+    public ChunkCooldownListener(HardcoreRevivalPlugin plugin) {
+        this.cooldowns = plugin.getDataStore().getChunkCooldowns();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Newly generated chunks cannot hold an altar yet
+        if (!event.isNewChunk()) {
+            cooldowns.load(event.getChunk());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        cooldowns.unload(event.getChunk());
+    }
+}
@@ -1,22 +1,27 @@
 package com.yourorg.hardcorerevival.listeners;
 
 import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
-import org.bukkit.ChatColor;
+import com.yourorg.hardcorerevival.util.DeadPlayerRegistry;
+import com.yourorg.hardcorerevival.util.JfrEvents;
+import com.yourorg.hardcorerevival.util.RevivalTokens;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.scheduler.BukkitRunnable;
 
 /**
- * Handles player death events. Drops the deceased player's head bound to
- * them at their death location and switches them to spectator mode. The head
- * contains lore marking it as a revival token. Behaviour is controlled via
- * the dropHeadOnDeath config option.
+ * Handles player death events. Records the death in the dead player
+ * registry and the history, drops the deceased player's head bound to them at their death
+ * location and switches them to spectator mode. The head is stamped with a
+ * revival token in its persistent data and carries lore marking it as such.
+ * Behaviour is controlled via the dropHeadOnDeath config option.
  */
 public class DeathListener implements Listener {
     private final HardcoreRevivalPlugin plugin;
@@ -28,22 +33,19 @@ public class DeathListener implements Listener {
     @EventHandler
     public void onPlayerDeath(PlayerDeathEvent event) {
         final Player player = event.getEntity();
-        // Check if head drops are enabled
-        if (!plugin.getConfig().getBoolean("settings.dropHeadOnDeath", true)) {
+        boolean dropHead = shouldDropHead(player);
+        // Deaths are recorded whenever the player ends up in spectator: either
+        // this listener switches them or the world itself is hardcore
+        if (!dropHead && !player.getWorld().isHardcore()) {
             return;
         }
-        // Check world whitelist/blacklist
-        String worldName = player.getWorld().getName();
-        java.util.List<String> whitelist = plugin.getConfig().getStringList("settings.worldWhitelist");
-        java.util.List<String> blacklist = plugin.getConfig().getStringList("settings.worldBlacklist");
-        if (!whitelist.isEmpty()) {
-            if (!whitelist.contains(worldName)) {
-                return;
-            }
-        } else if (blacklist.contains(worldName)) {
+        recordDeath(player);
+        if (!dropHead) {
             return;
         }
         // Drop the player's head
+        JfrEvents.HeadDrop drop = new JfrEvents.HeadDrop();
+        drop.begin();
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) head.getItemMeta();
         meta.setOwningPlayer(player);
@@ -51,9 +53,19 @@ public class DeathListener implements Listener {
         java.util.List<String> lore = new java.util.ArrayList<>();
         lore.add(plugin.colour("&eRevival Token for &f" + player.getName()));
         meta.setLore(lore);
+        // Stamp the token so the altar can identify the target without a lookup
+        RevivalTokens.Token token = plugin.getTokens().stamp(meta, player.getUniqueId(), player.getName());
         head.setItemMeta(meta);
+        plugin.getTokens().register(token);
         // Drop naturally at the player's death location
         player.getWorld().dropItemNaturally(player.getLocation(), head);
+        if (drop.shouldCommit()) {
+            drop.player = player.getName();
+            drop.playerId = player.getUniqueId().toString();
+            drop.world = player.getWorld().getName();
+            drop.tokenId = token.id();
+            drop.commit();
+        }
         // Schedule spectator mode after death to ensure it persists
         new BukkitRunnable() {
             @Override
@@ -64,4 +76,30 @@ public class DeathListener implements Listener {
             }
         }.runTaskLater(plugin, 1L);
     }
-}
\ No newline at end of file
+
+    private boolean shouldDropHead(Player player) {
+        // Check if head drops are enabled
+        if (!plugin.getConfig().getBoolean("settings.dropHeadOnDeath", true)) {
+            return false;
+        }
+        // Check world whitelist/blacklist
+        String worldName = player.getWorld().getName();
+        java.util.List<String> whitelist = plugin.getConfig().getStringList("settings.worldWhitelist");
+        java.util.List<String> blacklist = plugin.getConfig().getStringList("settings.worldBlacklist");
+        if (!whitelist.isEmpty()) {
+            return whitelist.contains(worldName);
+        }
+        return !blacklist.contains(worldName);
+    }
+
+    private void recordDeath(Player player) {
+        Location loc = player.getLocation();
+        EntityDamageEvent lastDamage = player.getLastDamageCause();
+        String cause = lastDamage != null ? lastDamage.getCause().name() : "UNKNOWN";
+        long now = System.currentTimeMillis();
+        plugin.getDataStore().getDeadPlayers().markDead(new DeadPlayerRegistry.DeathRecord(
+                player.getUniqueId(), player.getName(), now, loc.getWorld().getName(),
+                loc.getX(), loc.getY(), loc.getZ(), cause));
+        plugin.getHistory().recordDeath(player.getUniqueId(), player.getName(), loc.getWorld().getName(), cause, now);
+    }
+}
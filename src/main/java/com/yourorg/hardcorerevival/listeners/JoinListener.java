@@ -1,11 +1,17 @@
 package com.yourorg.hardcorerevival.listeners;
 
 import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.util.DataStore;
+import com.yourorg.hardcorerevival.util.DeadPlayerRegistry;
+import com.yourorg.hardcorerevival.util.PlayerDataScanner;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
@@ -13,7 +19,12 @@ import org.bukkit.potion.PotionEffectType;
 /**
  * Applies pending revives for players who were offline when revived. When
  * such a player joins, they are restored to survival mode with full health
- * and receive temporary regeneration and damage resistance effects.
+ * and receive temporary regeneration and damage resistance effects. Players
+ * recorded as dead who join outside spectator mode are returned to it,
+ * unless an admin or another plugin has since moved them out of spectator
+ * mode, which removes them from the dead player registry. Spectators with no
+ * death record, such as players who died before the registry existed, are
+ * recorded as dead when they join or when the plugin is enabled.
  */
 public class JoinListener implements Listener {
     private final HardcoreRevivalPlugin plugin;
@@ -28,10 +39,72 @@ public class JoinListener implements Listener {
         // Check if player is pending revival
         if (plugin.getDataStore().isPendingRevive(player.getUniqueId())) {
             plugin.getDataStore().removePendingRevive(player.getUniqueId());
+            plugin.getDataStore().getDeadPlayers().remove(player.getUniqueId());
             revivePlayer(player);
+        } else if (isExempt(player)) {
+            // Recorded by the playerdata scan, e.g. staff who were watching in spectator mode
+            plugin.getDataStore().getDeadPlayers().remove(player.getUniqueId());
+        } else if (plugin.getDataStore().getDeadPlayers().isDead(player.getUniqueId())
+                && player.getGameMode() != GameMode.SPECTATOR) {
+            // Died but left before the spectator switch was applied
+            player.setGameMode(GameMode.SPECTATOR);
+        } else {
+            recordSpectator(player);
         }
     }
 
+    /**
+     * Records every online spectator who has no death record, for players
+     * who were already dead when the plugin was enabled. Must be called on
+     * the main thread.
+     */
+    public void recordSpectators() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            recordSpectator(player);
+        }
+    }
+
+    /**
+     * Records a spectator without a death record as dead, as earlier
+     * versions treated every spectator as dead. Operators and players
+     * holding hardcorerevival.reconcile.exempt are left alone, as are all
+     * players when settings.recordSpectators is disabled.
+     */
+    private void recordSpectator(Player player) {
+        DataStore store = plugin.getDataStore();
+        if (player.getGameMode() != GameMode.SPECTATOR
+                || !plugin.getConfig().getBoolean("settings.recordSpectators", true)
+                || store.getDeadPlayers().isDead(player.getUniqueId()) || store.isPendingRevive(player.getUniqueId())
+                || player.isOp() || player.hasPermission("hardcorerevival.reconcile.exempt")) {
+            return;
+        }
+        Location location = player.getLocation();
+        store.getDeadPlayers().markDead(new DeadPlayerRegistry.DeathRecord(player.getUniqueId(), player.getName(),
+                System.currentTimeMillis(), location.getWorld().getName(), location.getX(), location.getY(),
+                location.getZ(), PlayerDataScanner.CAUSE));
+        plugin.getLogger().info(player.getName() + " is in spectator mode without a death record; recorded as dead");
+    }
+
+    private boolean isExempt(Player player) {
+        DeadPlayerRegistry.DeathRecord record = plugin.getDataStore().getDeadPlayers().get(player.getUniqueId());
+        return record != null && PlayerDataScanner.CAUSE.equals(record.cause())
+                && player.hasPermission("hardcorerevival.reconcile.exempt");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGameModeChange(PlayerGameModeChangeEvent event) {
+        // The plugin's own revives leave the registry before changing the game mode
+        PlayerGameModeChangeEvent.Cause cause = event.getCause();
+        Player player = event.getPlayer();
+        if (event.getNewGameMode() == GameMode.SPECTATOR
+                || (cause != PlayerGameModeChangeEvent.Cause.COMMAND && cause != PlayerGameModeChangeEvent.Cause.PLUGIN)
+                || !plugin.getDataStore().getDeadPlayers().isDead(player.getUniqueId())) {
+            return;
+        }
+        plugin.getDataStore().getDeadPlayers().remove(player.getUniqueId());
+        plugin.getLogger().info(player.getName() + " was moved out of spectator mode and is no longer recorded as dead");
+    }
+
     /**
      * Restores a player to survival mode, heals them to full health and
      * applies regeneration and damage resistance potion effects. Negative
@@ -88,6 +88,27 @@ public final class AltarValidator {
      * @return a validation result containing an altar descriptor or an error key
      */
     public static ValidationResult validate(Block fenceBlock, HardcoreRevivalPlugin plugin) {
+        if (!JfrEvents.ALTAR_VALIDATION.isEnabled()) {
+            return check(fenceBlock, plugin, null);
+        }
+        JfrEvents.AltarValidation event = new JfrEvents.AltarValidation();
+        event.begin();
+        ValidationResult result = check(fenceBlock, plugin, event);
+        if (event.shouldCommit()) {
+            event.world = fenceBlock.getWorld().getName();
+            event.x = fenceBlock.getX();
+            event.y = fenceBlock.getY();
+            event.z = fenceBlock.getZ();
+            event.valid = result.valid;
+            event.errorKey = result.errorKey;
+            event.commit();
+        }
+        return result;
+    }
+
+    // The event only collects scan counts; null when it is not recorded
+    private static ValidationResult check(Block fenceBlock, HardcoreRevivalPlugin plugin,
+                                          JfrEvents.AltarValidation event) {
         World world = fenceBlock.getWorld();
         String worldName = world.getName();
 
@@ -164,7 +185,13 @@ public final class AltarValidator {
         for (Inventory inv : inventories) {
             boolean hasTotem = false;
             boolean hasRose = false;
+            if (event != null) {
+                event.chestsScanned++;
+            }
             for (ItemStack item : inv.getContents()) {
+                if (event != null) {
+                    event.slotsScanned++;
+                }
                 if (item == null) continue;
                 if (item.getType() == Material.TOTEM_OF_UNDYING) {
                     if (item.getAmount() > 0) {
@@ -0,0 +1,65 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free per-player token bucket for altar attempts. Each bucket is a
+ * single atomic "theoretical arrival time" (the generic cell rate algorithm):
+ * a player may make antiSpam.attemptBurst attempts back to back, after which
+ * attempts refill at antiSpam.attemptsPerSecond. Updates are a CAS on that
+ * one value, so there is no lock and no per-attempt allocation.
+ */
+public class AttemptLimiter {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final Map<UUID, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public AttemptLimiter(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Takes a token for the player if one is available.
+     *
+     * @param player the player making an attempt
+     * @return true if the attempt is allowed
+     */
+    public boolean tryAcquire(UUID player) {
+        double rate = plugin.getConfig().getDouble("antiSpam.attemptsPerSecond", 1.0);
+        int burst = Math.max(1, plugin.getConfig().getInt("antiSpam.attemptBurst", 3));
+        if (rate <= 0) {
+            return true;
+        }
+        long interval = (long) (1_000_000_000L / rate);
+        long tolerance = interval * (burst - 1);
+        AtomicLong bucket = buckets.computeIfAbsent(player, key -> new AtomicLong(EMPTY));
+        while (true) {
+            long now = System.nanoTime();
+            long current = bucket.get();
+            long arrival = current == EMPTY ? now : Math.max(current, now);
+            if (arrival - now > tolerance) {
+                plugin.getMetrics().increment("attempts.limited");
+                return false;
+            }
+            if (bucket.compareAndSet(current, arrival + interval)) {
+                plugin.getMetrics().increment("attempts.allowed");
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Discards the player's bucket, e.g. when they leave the server.
+     *
+     * @param player the player
+     */
+    public void forget(UUID player) {
+        buckets.remove(player);
+    }
+}
@@ -0,0 +1,330 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured audit log of revival attempts. Records are pushed into a
+ * lock-free ring buffer by the server thread and written to rotating files
+ * under audit/ by a background thread, so altar activity never touches the
+ * console or the disk on the main thread. Repeated identical failures from
+ * the same player are collapsed into a single summary line per window.
+ */
+public class AuditLog {
+    private static final long IDLE_PARK_NANOS = 200_000_000L;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final boolean enabled;
+    private final RecordRing ring;
+    private final File directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final long windowMillis;
+    // Open failure windows per player, used to suppress repeated failures
+    private final Map<UUID, FailureWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private Thread writerThread;
+
+    /**
+     * Outcome of an audited revival attempt.
+     */
+    public enum Result {
+        SUCCESS,
+        FAILURE,
+        SUPPRESSED
+    }
+
+    /**
+     * A single audit record. For {@link Result#SUPPRESSED} records, count
+     * holds the number of identical failures that were not written.
+     */
+    public record Entry(long time, String player, UUID playerId, String target, String altarKey,
+                        Result result, String errorKey, long durationMicros, int count) {
+    }
+
+    private record FailureWindow(String errorKey, String altarKey, String player, String target,
+                                 long startedAt, int suppressed) {
+    }
+
+    public AuditLog(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("audit.enabled", true);
+        this.ring = new RecordRing(Math.max(64, plugin.getConfig().getInt("audit.bufferSize", 4096)));
+        this.directory = new File(plugin.getDataFolder(), "audit");
+        this.maxFileBytes = Math.max(1L, plugin.getConfig().getLong("audit.maxFileSizeKb", 1024L)) * 1024L;
+        this.maxFiles = Math.max(1, plugin.getConfig().getInt("audit.maxFiles", 5));
+        this.windowMillis = plugin.getConfig().getLong("audit.failureWindowSeconds", 10L) * 1000L;
+    }
+
+    /**
+     * Starts the background writer thread. Does nothing if auditing is
+     * disabled in the configuration.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "HardcoreRevival-Audit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stops the writer thread after it has drained all queued records.
+     */
+    public void close() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    /**
+     * Records a successful revival.
+     *
+     * @param player         name of the player who placed the head
+     * @param playerId       UUID of the placer
+     * @param target         name of the revived player
+     * @param altarKey       serialised altar location
+     * @param durationMicros time spent handling the placement
+     */
+    public void success(String player, UUID playerId, String target, String altarKey, long durationMicros) {
+        if (!enabled) {
+            return;
+        }
+        offer(new Entry(System.currentTimeMillis(), player, playerId, target, altarKey,
+                Result.SUCCESS, null, durationMicros, 1));
+    }
+
+    /**
+     * Records a failed revival attempt. If the same player hit the same
+     * error on the same altar within audit.failureWindowSeconds, the record
+     * is counted towards a summary instead of being written.
+     *
+     * @param player         name of the player who placed the head
+     * @param playerId       UUID of the placer
+     * @param target         name of the targeted player, or null if unknown
+     * @param altarKey       serialised altar location
+     * @param errorKey       message key under messages.errors
+     * @param durationMicros time spent handling the placement
+     */
+    public void failure(String player, UUID playerId, String target, String altarKey, String errorKey,
+                        long durationMicros) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] suppressed = new boolean[1];
+        windows.compute(playerId, (id, window) -> {
+            if (window != null && now - window.startedAt() < windowMillis
+                    && window.errorKey().equals(errorKey) && window.altarKey().equals(altarKey)
+                    && Objects.equals(window.target(), target)) {
+                suppressed[0] = true;
+                return new FailureWindow(errorKey, altarKey, player, target, window.startedAt(),
+                        window.suppressed() + 1);
+            }
+            if (window != null) {
+                emitSummary(id, window);
+            }
+            return new FailureWindow(errorKey, altarKey, player, target, now, 0);
+        });
+        if (!suppressed[0]) {
+            offer(new Entry(now, player, playerId, target, altarKey, Result.FAILURE, errorKey, durationMicros, 1));
+        }
+    }
+
+    private void offer(Entry entry) {
+        if (!ring.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void emitSummary(UUID playerId, FailureWindow window) {
+        if (window.suppressed() > 0) {
+            offer(new Entry(System.currentTimeMillis(), window.player(), playerId, window.target(),
+                    window.altarKey(), Result.SUPPRESSED, window.errorKey(), 0L, window.suppressed()));
+        }
+    }
+
+    /**
+     * Closes failure windows that have expired, writing their summaries.
+     * Runs on the writer thread.
+     */
+    private void sweepWindows() {
+        long now = System.currentTimeMillis();
+        for (UUID id : windows.keySet()) {
+            windows.computeIfPresent(id, (key, window) -> {
+                if (now - window.startedAt() < windowMillis) {
+                    return window;
+                }
+                emitSummary(key, window);
+                return null;
+            });
+        }
+    }
+
+    private void runWriter() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            plugin.getLogger().warning("Could not create audit log directory; auditing disabled");
+            return;
+        }
+        File current = new File(directory, "audit.log");
+        Writer writer = null;
+        try {
+            writer = open(current);
+            boolean draining = true;
+            while (draining) {
+                if (!running) {
+                    // Flush every open window before the final drain
+                    windows.forEach(this::emitSummary);
+                    windows.clear();
+                    draining = false;
+                } else {
+                    sweepWindows();
+                }
+                long lost = dropped.getAndSet(0L);
+                if (lost > 0) {
+                    writer.write(Instant.now() + " result=DROPPED count=" + lost + "\n");
+                }
+                int written = 0;
+                Entry entry;
+                while ((entry = ring.poll()) != null) {
+                    writer.write(format(entry));
+                    written++;
+                }
+                if (written > 0 || lost > 0) {
+                    writer.flush();
+                    if (current.length() >= maxFileBytes) {
+                        writer.close();
+                        rotate(current);
+                        writer = open(current);
+                    }
+                } else if (draining) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Audit log writer stopped: " + e.getMessage());
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                    // Nothing left to do on shutdown
+                }
+            }
+        }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    private void rotate(File current) {
+        File oldest = new File(directory, "audit.log." + (maxFiles - 1));
+        if (oldest.exists() && !oldest.delete()) {
+            plugin.getLogger().warning("Could not delete " + oldest.getName());
+        }
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            File from = new File(directory, "audit.log." + i);
+            if (from.exists() && !from.renameTo(new File(directory, "audit.log." + (i + 1)))) {
+                plugin.getLogger().warning("Could not rotate " + from.getName());
+            }
+        }
+        if (maxFiles > 1) {
+            if (!current.renameTo(new File(directory, "audit.log.1"))) {
+                plugin.getLogger().warning("Could not rotate " + current.getName());
+            }
+        } else if (!current.delete()) {
+            plugin.getLogger().warning("Could not truncate " + current.getName());
+        }
+    }
+
+    private static String format(Entry entry) {
+        StringBuilder line = new StringBuilder(160);
+        line.append(Instant.ofEpochMilli(entry.time()))
+                .append(" result=").append(entry.result())
+                .append(" player=").append(entry.player())
+                .append(" playerId=").append(entry.playerId())
+                .append(" target=").append(entry.target() == null ? "-" : entry.target())
+                .append(" altar=").append(entry.altarKey());
+        if (entry.errorKey() != null) {
+            line.append(" error=").append(entry.errorKey());
+        }
+        if (entry.result() == Result.SUPPRESSED) {
+            line.append(" count=").append(entry.count());
+        } else {
+            line.append(" durationUs=").append(entry.durationMicros());
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring buffer. Producers claim a
+     * slot by advancing the tail with a CAS and then publish into it; the
+     * consumer clears a slot before advancing the head, so a claimed slot is
+     * always free.
+     */
+    private static final class RecordRing {
+        private final AtomicReferenceArray<Entry> slots;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        RecordRing(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        boolean offer(Entry entry) {
+            while (true) {
+                long t = tail.get();
+                if (t - head.get() >= slots.length()) {
+                    return false;
+                }
+                if (tail.compareAndSet(t, t + 1)) {
+                    slots.set((int) (t & mask), entry);
+                    return true;
+                }
+            }
+        }
+
+        Entry poll() {
+            long h = head.get();
+            int index = (int) (h & mask);
+            Entry entry = slots.get(index);
+            if (entry == null) {
+                // Empty, or the producer that claimed this slot has not published yet
+                return null;
+            }
+            slots.set(index, null);
+            head.lazySet(h + 1);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Stores altar cooldowns in the persistent data of the chunk each altar is
+ * in, used when cooldowns.storage is set to chunk. Only the cooldowns of
+ * loaded chunks are held in memory: they are read when a chunk loads and
+ * dropped when it unloads, and expired ones are removed from the chunk as
+ * it loads. A new cooldown is written to its chunk straight away, so saving
+ * data.yml no longer rewrites every altar ever used.
+ *
+ * <p>Each chunk holds a long array of pairs: the altar's block position,
+ * packed the same way as the server's block positions, followed by the time
+ * the altar was last used. All methods must be called on the main
+ * thread, except {@link #getLoaded()}.</p>
+ */
+public class ChunkCooldowns {
+    // Chunks loaded at once while importing from data.yml
+    private static final int IMPORT_CONCURRENCY = 8;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final NamespacedKey key;
+    // Written on the main thread; concurrent so admin queries can read it
+    private final Map<String, Long> loaded = new ConcurrentHashMap<>();
+
+    public ChunkCooldowns(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.key = new NamespacedKey(plugin, "altar_cooldowns");
+    }
+
+    /**
+     * Reads the cooldowns of every chunk that is already loaded, for worlds
+     * loaded before the plugin was enabled.
+     */
+    public void loadAll() {
+        loaded.clear();
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                load(chunk);
+            }
+        }
+    }
+
+    /**
+     * Reads the cooldowns stored in a chunk into memory, removing expired
+     * ones from the chunk.
+     *
+     * @param chunk the chunk that was loaded
+     */
+    public void load(Chunk chunk) {
+        PersistentDataContainer data = chunk.getPersistentDataContainer();
+        long[] entries = data.get(key, PersistentDataType.LONG_ARRAY);
+        if (entries == null) {
+            return;
+        }
+        long cooldownMillis = plugin.getConfig().getLong("settings.cooldownSeconds", 0L) * 1000L;
+        long now = System.currentTimeMillis();
+        String world = chunk.getWorld().getName();
+        int kept = 0;
+        for (int i = 0; i + 1 < entries.length; i += 2) {
+            if (cooldownMillis > 0 && now - entries[i + 1] >= cooldownMillis) {
+                continue;
+            }
+            loaded.put(locationKey(world, entries[i]), entries[i + 1]);
+            entries[kept++] = entries[i];
+            entries[kept++] = entries[i + 1];
+        }
+        if (kept != entries.length) {
+            write(data, entries, kept);
+        }
+    }
+
+    /**
+     * Drops the cooldowns of a chunk from memory. They stay in the chunk.
+     *
+     * @param chunk the chunk being unloaded
+     */
+    public void unload(Chunk chunk) {
+        long[] entries = chunk.getPersistentDataContainer().get(key, PersistentDataType.LONG_ARRAY);
+        if (entries == null) {
+            return;
+        }
+        String world = chunk.getWorld().getName();
+        for (int i = 0; i + 1 < entries.length; i += 2) {
+            loaded.remove(locationKey(world, entries[i]));
+        }
+    }
+
+    /**
+     * Retrieves the last used time of an altar in a loaded chunk.
+     *
+     * @param locationKey the altar's location key
+     * @return last usage time in milliseconds, or 0 if none is stored
+     */
+    public long get(String locationKey) {
+        return loaded.getOrDefault(locationKey, 0L);
+    }
+
+    /**
+     * Records the last used time of an altar in its chunk.
+     *
+     * @param locationKey the altar's location key
+     * @param millis      timestamp in milliseconds
+     * @return false if the key does not name a block in a loaded world
+     */
+    public boolean set(String locationKey, long millis) {
+        Position position = Position.parse(locationKey);
+        World world = position == null ? null : Bukkit.getWorld(position.world());
+        if (world == null) {
+            return false;
+        }
+        put(world.getChunkAt(position.x() >> 4, position.z() >> 4), position.packed(), millis, true);
+        loaded.put(locationKey, millis);
+        return true;
+    }
+
+    /**
+     * Removes the cooldowns of several altars from memory and from their
+     * chunks, if loaded.
+     *
+     * @param locationKeys the altars' location keys
+     * @return true if any cooldown was removed
+     */
+    public boolean removeAll(Collection<String> locationKeys) {
+        boolean changed = false;
+        for (String locationKey : locationKeys) {
+            changed |= loaded.remove(locationKey) != null;
+            Position position = Position.parse(locationKey);
+            World world = position == null ? null : Bukkit.getWorld(position.world());
+            if (world == null || !world.isChunkLoaded(position.x() >> 4, position.z() >> 4)) {
+                continue;
+            }
+            PersistentDataContainer data = world.getChunkAt(position.x() >> 4, position.z() >> 4)
+                    .getPersistentDataContainer();
+            long[] entries = data.get(key, PersistentDataType.LONG_ARRAY);
+            if (entries == null) {
+                continue;
+            }
+            int kept = 0;
+            for (int i = 0; i + 1 < entries.length; i += 2) {
+                if (entries[i] != position.packed()) {
+                    entries[kept++] = entries[i];
+                    entries[kept++] = entries[i + 1];
+                }
+            }
+            if (kept != entries.length) {
+                write(data, entries, kept);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Retrieves a read-only view of the cooldowns of altars in loaded
+     * chunks. The view is safe to iterate from async tasks.
+     *
+     * @return cooldown timestamps by location key
+     */
+    public Map<String, Long> getLoaded() {
+        return Collections.unmodifiableMap(loaded);
+    }
+
+    /**
+     * Moves cooldowns kept in data.yml into their chunks. Chunks are loaded
+     * in the background a few at a time, without generating missing ones.
+     * An altar whose chunk already has a newer time keeps it, so an import
+     * cut short by a shutdown can simply run again.
+     *
+     * @param cooldowns cooldown timestamps by location key
+     * @param done      receives on the main thread the keys that were moved;
+     *                  keys for unknown worlds or chunks that failed to load
+     *                  are left out and should be kept for a later attempt
+     */
+    public void importAll(Map<String, Long> cooldowns, Consumer<Set<String>> done) {
+        // Group by chunk so each chunk is loaded and written once
+        Map<ChunkRef, List<Position>> byChunk = new HashMap<>();
+        Map<Position, Long> times = new HashMap<>();
+        Set<String> moved = new HashSet<>();
+        long cooldownMillis = plugin.getConfig().getLong("settings.cooldownSeconds", 0L) * 1000L;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> entry : cooldowns.entrySet()) {
+            Position position = Position.parse(entry.getKey());
+            if (position == null || (cooldownMillis > 0 && now - entry.getValue() >= cooldownMillis)) {
+                // Unreadable keys and expired cooldowns are never needed again; drop them
+                moved.add(entry.getKey());
+                continue;
+            }
+            World world = Bukkit.getWorld(position.world());
+            if (world == null) {
+                continue;
+            }
+            byChunk.computeIfAbsent(new ChunkRef(world, position.x() >> 4, position.z() >> 4),
+                    ref -> new ArrayList<>()).add(position);
+            times.put(position, entry.getValue());
+            moved.add(entry.getKey());
+        }
+        if (byChunk.isEmpty()) {
+            done.accept(moved);
+            return;
+        }
+        Iterator<Map.Entry<ChunkRef, List<Position>>> pending = byChunk.entrySet().iterator();
+        // Chunks already loaded may complete at once, so count every chain up front
+        int[] running = {IMPORT_CONCURRENCY};
+        Runnable[] next = new Runnable[1];
+        next[0] = () -> {
+            if (!pending.hasNext()) {
+                if (--running[0] == 0) {
+                    done.accept(moved);
+                }
+                return;
+            }
+            Map.Entry<ChunkRef, List<Position>> group = pending.next();
+            ChunkRef ref = group.getKey();
+            // Completes on the main thread; null if the chunk was never generated
+            ref.world().getChunkAtAsync(ref.x(), ref.z(), false).whenComplete((chunk, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Could not load chunk " + ref.x() + "," + ref.z() + " in "
+                            + ref.world().getName() + " to import cooldowns: " + error.getMessage());
+                    group.getValue().forEach(position -> moved.remove(position.key()));
+                } else if (chunk != null) {
+                    for (Position position : group.getValue()) {
+                        long millis = times.get(position);
+                        if (put(chunk, position.packed(), millis, false)) {
+                            loaded.put(position.key(), millis);
+                        }
+                    }
+                }
+                next[0].run();
+            });
+        };
+        for (int i = 0; i < IMPORT_CONCURRENCY; i++) {
+            next[0].run();
+        }
+    }
+
+    /**
+     * Stores one altar's time in a chunk.
+     *
+     * @param replace true to overwrite an existing time, false to keep the
+     *                newer of the two
+     * @return true if the chunk now holds the given time
+     */
+    private boolean put(Chunk chunk, long packed, long millis, boolean replace) {
+        PersistentDataContainer data = chunk.getPersistentDataContainer();
+        long[] entries = data.get(key, PersistentDataType.LONG_ARRAY);
+        if (entries == null) {
+            entries = new long[0];
+        }
+        for (int i = 0; i + 1 < entries.length; i += 2) {
+            if (entries[i] == packed) {
+                if (!replace && entries[i + 1] >= millis) {
+                    return false;
+                }
+                entries[i + 1] = millis;
+                data.set(key, PersistentDataType.LONG_ARRAY, entries);
+                return true;
+            }
+        }
+        long[] grown = Arrays.copyOf(entries, entries.length + 2);
+        grown[entries.length] = packed;
+        grown[entries.length + 1] = millis;
+        data.set(key, PersistentDataType.LONG_ARRAY, grown);
+        return true;
+    }
+
+    private void write(PersistentDataContainer data, long[] entries, int length) {
+        if (length == 0) {
+            data.remove(key);
+        } else {
+            data.set(key, PersistentDataType.LONG_ARRAY, Arrays.copyOf(entries, length));
+        }
+    }
+
+    private static String locationKey(String world, long packed) {
+        return world + ":" + unpackX(packed) + ":" + unpackY(packed) + ":" + unpackZ(packed);
+    }
+
+    // 26 bits of x, 26 bits of z and 12 bits of y, as in the server's block positions
+    private static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    private record ChunkRef(World world, int x, int z) {
+    }
+
+    /**
+     * An altar position parsed from its location key, world:x:y:z.
+     */
+    private record Position(String world, int x, int y, int z) {
+        static Position parse(String key) {
+            int third = key.lastIndexOf(':');
+            int second = third <= 0 ? -1 : key.lastIndexOf(':', third - 1);
+            int first = second <= 0 ? -1 : key.lastIndexOf(':', second - 1);
+            if (first <= 0) {
+                return null;
+            }
+            try {
+                return new Position(key.substring(0, first), Integer.parseInt(key.substring(first + 1, second)),
+                        Integer.parseInt(key.substring(second + 1, third)), Integer.parseInt(key.substring(third + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        long packed() {
+            return pack(x, y, z);
+        }
+
+        String key() {
+            return world + ":" + x + ":" + y + ":" + z;
+        }
+    }
+}
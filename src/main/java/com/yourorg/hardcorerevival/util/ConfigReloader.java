@@ -0,0 +1,438 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reloads config.yml without blocking the server thread. The file is parsed
+ * and validated on an async task; sound and particle names, world names, Y
+ * ranges, message placeholders and recipe ingredients are all checked there. Only a config that
+ * passes validation is swapped in, on the main thread, and the keys that
+ * changed are reported. A failed reload keeps the current config and reports
+ * every problem found. Problems that do not stop the config from working,
+ * such as a listed world that is not loaded, are reported as warnings.
+ * Optionally a file watcher triggers a reload whenever config.yml is
+ * modified; a change seen during a reload is picked up by another reload
+ * once it finishes.
+ */
+public class ConfigReloader {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z]+)}");
+    private static final long WATCH_DEBOUNCE_MILLIS = 1000L;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final File configFile;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    // Set when the watcher sees a change while a reload is running
+    private final AtomicBoolean rerun = new AtomicBoolean();
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * Outcome of parsing and validating a config file. The config is only
+     * set when there are no errors.
+     */
+    private record Parsed(FileConfiguration config, List<String> errors, List<String> warnings) {
+    }
+
+    /**
+     * World data captured on the main thread for validation off it.
+     */
+    private record WorldSnapshot(Set<String> names, int minHeight, int maxHeight) {
+    }
+
+    public ConfigReloader(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.configFile = new File(plugin.getDataFolder(), "config.yml");
+    }
+
+    /**
+     * Starts a reload. Parsing and validation run asynchronously; the result
+     * is applied and reported on the main thread. Must be called from the
+     * main thread.
+     *
+     * @param requester sender to report to, or null to report to the console
+     */
+    public void reload(CommandSender requester) {
+        if (!reloading.compareAndSet(false, true)) {
+            if (requester == null) {
+                rerun.set(true);
+            } else {
+                report(requester, List.of(plugin.colour("&eA configuration reload is already in progress.")));
+            }
+            return;
+        }
+        WorldSnapshot worlds = snapshotWorlds();
+        PluginExecutor executor = plugin.getExecutor();
+        // Parsing has its own resource so a reload never queues behind data writes
+        executor.thenOnMain(executor.supply(PluginExecutor.Resource.CONFIG, () -> {
+            try {
+                return parseAndValidate(worlds);
+            } catch (RuntimeException e) {
+                return new Parsed(null, List.of("Unexpected error: " + e), List.of());
+            }
+        }), result -> complete(requester, result)).whenComplete((ignored, error) -> {
+            // Runs on the main thread even if parsing or applying failed
+            if (error != null) {
+                plugin.getLogger().severe("Could not apply the reloaded configuration: " + error.getCause());
+            }
+            reloading.set(false);
+            if (rerun.getAndSet(false)) {
+                reload(null);
+            }
+        });
+    }
+
+    private void complete(CommandSender requester, Parsed parsed) {
+        List<String> lines = new ArrayList<>();
+        if (!parsed.errors().isEmpty()) {
+            lines.add(plugin.colour("&cConfiguration not reloaded; the current settings were kept:"));
+            for (String error : parsed.errors()) {
+                lines.add(plugin.colour("&7- " + error));
+            }
+            addWarnings(lines, parsed.warnings());
+            report(requester, lines);
+            return;
+        }
+        Set<String> changed = diff(plugin.getConfig(), parsed.config());
+        plugin.applyConfig(parsed.config());
+        if (requester != null) {
+            requester.sendMessage(plugin.getMessages().raw("command.reload"));
+        } else {
+            lines.add("Configuration reloaded from config.yml");
+        }
+        if (changed.isEmpty()) {
+            lines.add(plugin.colour("&7No settings changed."));
+        } else {
+            lines.add(plugin.colour("&7Changed: &f" + String.join(", ", changed)));
+        }
+        addWarnings(lines, parsed.warnings());
+        report(requester, lines);
+    }
+
+    private void addWarnings(List<String> lines, List<String> warnings) {
+        if (warnings.isEmpty()) {
+            return;
+        }
+        lines.add(plugin.colour("&eWarnings:"));
+        for (String warning : warnings) {
+            lines.add(plugin.colour("&7- " + warning));
+        }
+    }
+
+    private void report(CommandSender requester, List<String> lines) {
+        for (String line : lines) {
+            if (requester != null) {
+                requester.sendMessage(line);
+            } else {
+                plugin.getLogger().info(ChatColor.stripColor(line));
+            }
+        }
+    }
+
+    private WorldSnapshot snapshotWorlds() {
+        Set<String> names = new HashSet<>();
+        int minHeight = Integer.MAX_VALUE;
+        int maxHeight = Integer.MIN_VALUE;
+        for (World world : Bukkit.getWorlds()) {
+            names.add(world.getName());
+            minHeight = Math.min(minHeight, world.getMinHeight());
+            maxHeight = Math.max(maxHeight, world.getMaxHeight() - 1);
+        }
+        if (names.isEmpty()) {
+            minHeight = -64;
+            maxHeight = 319;
+        }
+        return new WorldSnapshot(names, minHeight, maxHeight);
+    }
+
+    private Parsed parseAndValidate(WorldSnapshot worlds) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.load(configFile);
+        } catch (IOException e) {
+            return new Parsed(null, List.of("Could not read config.yml: " + e.getMessage()), List.of());
+        } catch (InvalidConfigurationException e) {
+            return new Parsed(null, List.of("config.yml is not valid YAML: " + e.getMessage()), List.of());
+        }
+        // Fall back to the bundled defaults, as JavaPlugin.reloadConfig does
+        InputStream defaults = plugin.getResource("config.yml");
+        if (defaults != null) {
+            try (Reader reader = new InputStreamReader(defaults, StandardCharsets.UTF_8)) {
+                config.setDefaults(YamlConfiguration.loadConfiguration(reader));
+            } catch (IOException ignored) {
+                // Defaults are optional
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        validateSounds(config, errors);
+        validateParticles(config, errors);
+        validateWorlds(config, worlds, warnings);
+        validateYRange(config, worlds, errors);
+        validateMessages(config, errors);
+        validateRecipes(config, errors);
+        validateRitual(config, errors);
+        if (config.getLong("settings.cooldownSeconds", 0L) < 0) {
+            errors.add("settings.cooldownSeconds must not be negative");
+        }
+        String storage = config.getString("cooldowns.storage", "data");
+        if (!"data".equalsIgnoreCase(storage) && !"chunk".equalsIgnoreCase(storage)) {
+            errors.add("cooldowns.storage must be data or chunk, not '" + storage + "'");
+        }
+        if (config.getInt("reconcile.parallelism", 0) < 0) {
+            errors.add("reconcile.parallelism must not be negative");
+        }
+        return new Parsed(errors.isEmpty() ? config : null, errors, warnings);
+    }
+
+    private static void validateSounds(FileConfiguration config, List<String> errors) {
+        List<Map<?, ?>> sounds = config.getMapList("sounds");
+        for (int i = 0; i < sounds.size(); i++) {
+            Map<?, ?> map = sounds.get(i);
+            String name = String.valueOf(map.get("sound"));
+            try {
+                Sound.valueOf(name);
+            } catch (IllegalArgumentException ex) {
+                errors.add("sounds[" + i + "]: unknown sound '" + name + "'");
+            }
+            requireNumber(map, "volume", "sounds[" + i + "]", errors);
+            requireNumber(map, "pitch", "sounds[" + i + "]", errors);
+            Object delay = map.get("delay");
+            if (delay != null && (!(delay instanceof Number number) || number.intValue() < 0)) {
+                errors.add("sounds[" + i + "]: delay must be a non-negative number of ticks");
+            }
+        }
+    }
+
+    private static void validateParticles(FileConfiguration config, List<String> errors) {
+        List<Map<?, ?>> particles = config.getMapList("particles");
+        for (int i = 0; i < particles.size(); i++) {
+            Map<?, ?> map = particles.get(i);
+            String name = String.valueOf(map.get("type"));
+            try {
+                Particle.valueOf(name);
+            } catch (IllegalArgumentException ex) {
+                errors.add("particles[" + i + "]: unknown particle '" + name + "'");
+            }
+            Object count = map.get("count");
+            if (count != null && (!(count instanceof Number number) || number.intValue() < 0)) {
+                errors.add("particles[" + i + "]: count must be a non-negative number");
+            }
+            requireNumber(map, "offsetX", "particles[" + i + "]", errors);
+            requireNumber(map, "offsetY", "particles[" + i + "]", errors);
+            requireNumber(map, "offsetZ", "particles[" + i + "]", errors);
+        }
+    }
+
+    private static void requireNumber(Map<?, ?> map, String key, String where, List<String> errors) {
+        Object value = map.get(key);
+        if (value != null && !(value instanceof Number)) {
+            errors.add(where + ": " + key + " must be a number");
+        }
+    }
+
+    private static void validateWorlds(FileConfiguration config, WorldSnapshot worlds, List<String> warnings) {
+        // A world may be loaded later, e.g. by a world manager, so this is only a warning
+        for (String path : List.of("settings.worldWhitelist", "settings.worldBlacklist")) {
+            for (String name : config.getStringList(path)) {
+                if (!worlds.names().contains(name)) {
+                    warnings.add(path + ": no loaded world named '" + name + "'");
+                }
+            }
+        }
+    }
+
+    private static void validateYRange(FileConfiguration config, WorldSnapshot worlds, List<String> errors) {
+        int yMin = config.getInt("settings.yMin", 0);
+        int yMax = config.getInt("settings.yMax", 320);
+        if (yMin > yMax) {
+            errors.add("settings.yMin (" + yMin + ") is greater than settings.yMax (" + yMax + ")");
+        }
+        if (yMax < worlds.minHeight() || yMin > worlds.maxHeight()) {
+            errors.add("settings.yMin..yMax (" + yMin + ".." + yMax + ") lies outside every world's build height ("
+                    + worlds.minHeight() + ".." + worlds.maxHeight() + ")");
+        }
+    }
+
+    private static void validateMessages(FileConfiguration config, List<String> errors) {
+        ConfigurationSection section = config.getConfigurationSection("messages");
+        if (section == null) {
+            errors.add("messages section is missing");
+            return;
+        }
+        for (String path : section.getKeys(true)) {
+            if (section.isConfigurationSection(path)) {
+                continue;
+            }
+            String text = section.getString(path, "");
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            while (matcher.find()) {
+                if (MessageService.Placeholder.byName(matcher.group(1)) == null) {
+                    errors.add("messages." + path + ": unknown placeholder " + matcher.group());
+                }
+            }
+        }
+    }
+
+    private static void validateRitual(FileConfiguration config, List<String> errors) {
+        String sound = config.getString("ritual.stageSound", "BLOCK_RESPAWN_ANCHOR_CHARGE");
+        try {
+            Sound.valueOf(sound);
+        } catch (IllegalArgumentException ex) {
+            errors.add("ritual.stageSound: unknown sound '" + sound + "'");
+        }
+        String particle = config.getString("ritual.stageParticle", "SOUL_FIRE_FLAME");
+        try {
+            Particle.valueOf(particle);
+        } catch (IllegalArgumentException ex) {
+            errors.add("ritual.stageParticle: unknown particle '" + particle + "'");
+        }
+        if (config.getDouble("ritual.durationSeconds", 10.0) < 0) {
+            errors.add("ritual.durationSeconds: must not be negative");
+        }
+        if (config.getInt("ritual.stages", 4) < 1) {
+            errors.add("ritual.stages: must be at least 1");
+        }
+    }
+
+    private static void validateRecipes(FileConfiguration config, List<String> errors) {
+        for (Map.Entry<String, List<String>> variant : RecipeRegistrar.variants(config).entrySet()) {
+            String id = variant.getKey();
+            List<String> ingredients = variant.getValue();
+            if (ingredients.isEmpty() || ingredients.size() > 9) {
+                errors.add("recipe.variants." + id + ": needs between 1 and 9 ingredients");
+            }
+            for (String ingredient : ingredients) {
+                if (RecipeRegistrar.parseIngredient(ingredient) == null) {
+                    errors.add("recipe.variants." + id + ": unknown ingredient '" + ingredient + "'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the leaf keys whose values differ between two configs, including
+     * keys that were added or removed.
+     */
+    private static Set<String> diff(FileConfiguration before, FileConfiguration after) {
+        Map<String, Object> oldValues = before.getValues(true);
+        Map<String, Object> newValues = after.getValues(true);
+        Set<String> changed = new TreeSet<>();
+        Set<String> keys = new HashSet<>(oldValues.keySet());
+        keys.addAll(newValues.keySet());
+        for (String key : keys) {
+            Object oldValue = oldValues.get(key);
+            Object newValue = newValues.get(key);
+            if (oldValue instanceof ConfigurationSection || newValue instanceof ConfigurationSection) {
+                continue;
+            }
+            if (!Objects.equals(oldValue, newValue)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Starts watching the data folder and reloads whenever config.yml is
+     * modified. Rapid successive writes are coalesced into one reload.
+     */
+    public void startWatching() {
+        Path folder = plugin.getDataFolder().toPath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not watch config.yml for changes: " + e.getMessage());
+            return;
+        }
+        watchThread = new Thread(this::runWatcher, "HardcoreRevival-ConfigWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Stops the config file watcher if it is running.
+     */
+    public void stopWatching() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // Closing only interrupts the watcher thread
+        }
+        watchService = null;
+        watchThread = null;
+    }
+
+    private void runWatcher() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean configChanged = drainConfigEvents(key);
+                // Wait for the editor to finish writing before parsing
+                while (configChanged) {
+                    WatchKey next = service.poll(WATCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    drainConfigEvents(next);
+                }
+                if (configChanged && plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> reload(null));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Watcher stopped
+        }
+    }
+
+    private static boolean drainConfigEvents(WatchKey key) {
+        boolean configChanged = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && path.getFileName().toString().equals("config.yml")) {
+                configChanged = true;
+            }
+        }
+        key.reset();
+        return configChanged;
+    }
+}
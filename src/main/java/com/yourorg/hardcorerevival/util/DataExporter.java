@@ -0,0 +1,548 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Exports pending.bin and data.yml to JSON lines or CSV for offline analysis
+ * or for loading into another storage backend. Pending revives are read 16
+ * bytes at a time and data.yml with SnakeYAML's event parser, so cooldowns
+ * and issued tokens are converted one entry at a time and memory use does
+ * not grow with the size of the files.
+ *
+ * <p>With cooldowns.storage set to chunk, the cooldowns of altars in loaded
+ * chunks are exported as well; altars in unloaded chunks are not, since
+ * their cooldowns are only stored in the chunks themselves.</p>
+ *
+ * <p>The export reads snapshots of these sources taken when it starts and runs
+ * on the plugin executor. Every {@link #CHECKPOINT_INTERVAL} entries the
+ * output is flushed and a checkpoint recording the entries written and the
+ * output length is saved. If the export is interrupted, for example by a
+ * shutdown, the next export in the same format truncates the output to the
+ * checkpoint and continues from there.</p>
+ */
+public class DataExporter {
+    private static final int CHECKPOINT_INTERVAL = 1000;
+    private static final long PROGRESS_INTERVAL_MILLIS = 2000L;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final File directory;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+
+    /**
+     * Output formats.
+     */
+    public enum Format {
+        JSONL,
+        CSV;
+
+        /**
+         * Looks up a format by name, ignoring case.
+         *
+         * @param name format name
+         * @return the format, or null if it is unknown
+         */
+        public static Format byName(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        private String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Outcome of an export run.
+     *
+     * @param file        the output file
+     * @param entries     entries in the output file
+     * @param skipped     malformed entries that were left out
+     * @param resumed     true if the run continued an interrupted export
+     * @param interrupted true if the run stopped early and can be resumed
+     */
+    public record Result(File file, long entries, long skipped, boolean resumed, boolean interrupted) {
+    }
+
+    public DataExporter(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "export");
+    }
+
+    /**
+     * Starts an export on the plugin executor. Progress lines are passed to
+     * the listener on the main thread.
+     *
+     * @param format   output format
+     * @param restart  true to discard an interrupted export instead of
+     *                 resuming it
+     * @param progress receives progress lines on the main thread
+     * @return future completed with the result, or null if an export is
+     * already running
+     */
+    public CompletableFuture<Result> start(Format format, boolean restart, Consumer<String> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        cancelled = false;
+        PluginExecutor executor = plugin.getExecutor();
+        CompletableFuture<Result> future = executor.supply(PluginExecutor.Resource.EXPORT, () -> {
+            try {
+                return export(format, restart, line -> executor.mainThread().execute(() -> progress.accept(line)));
+            } catch (IOException e) {
+                throw new IllegalStateException("Export failed: " + e.getMessage(), e);
+            }
+        });
+        future.whenComplete((result, error) -> running.set(false));
+        return future;
+    }
+
+    /**
+     * Asks a running export to stop at the next entry. Its checkpoint is
+     * kept so it can be resumed.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private Result export(Format format, boolean restart, Consumer<String> progress) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("could not create " + directory);
+        }
+        File output = new File(directory, "data." + format.extension());
+        File checkpointFile = new File(directory, output.getName() + ".checkpoint");
+        File snapshot = new File(directory, output.getName() + ".source.yml");
+        File pendingSnapshot = new File(directory, output.getName() + ".source.bin");
+        File chunkSnapshot = new File(directory, output.getName() + ".source.chunks.yml");
+
+        Checkpoint checkpoint = restart ? null : Checkpoint.read(checkpointFile);
+        if (checkpoint != null && (!snapshot.exists()
+                || snapshot.length() + pendingSnapshot.length() + chunkSnapshot.length() != checkpoint.snapshotSize()
+                || !output.exists() || output.length() < checkpoint.outputBytes())) {
+            // The files the checkpoint refers to are gone or changed; start over
+            checkpoint = null;
+        }
+        boolean resumed = checkpoint != null;
+        if (!resumed) {
+            plugin.getDataStore().copyTo(snapshot, pendingSnapshot);
+            writeChunkCooldowns(chunkSnapshot);
+            checkpoint = new Checkpoint(snapshot.length() + pendingSnapshot.length() + chunkSnapshot.length(),
+                    0L, 0L, 0L);
+            Files.deleteIfExists(output.toPath());
+        } else {
+            try (RandomAccessFile raf = new RandomAccessFile(output, "rw")) {
+                raf.setLength(checkpoint.outputBytes());
+            }
+            progress.accept("Resuming export after " + checkpoint.entries() + " entries");
+        }
+
+        long total = checkpoint.snapshotSize();
+        long skip = checkpoint.entries();
+        long entries = 0L;
+        long skipped = checkpoint.skipped();
+        long lastProgress = System.currentTimeMillis();
+        boolean interrupted = false;
+        try (CountingInputStream pendingIn = new CountingInputStream(pendingSnapshot.exists()
+                ? new FileInputStream(pendingSnapshot) : InputStream.nullInputStream());
+             CountingInputStream in = new CountingInputStream(new FileInputStream(snapshot));
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             CountingInputStream chunkIn = new CountingInputStream(chunkSnapshot.exists()
+                     ? new FileInputStream(chunkSnapshot) : InputStream.nullInputStream());
+             Reader chunkReader = new InputStreamReader(chunkIn, StandardCharsets.UTF_8);
+             CountingOutputStream bytes = new CountingOutputStream(new FileOutputStream(output, true),
+                     checkpoint.outputBytes());
+             Writer out = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            if (!resumed && format == Format.CSV) {
+                out.write("type,key,target,time\n");
+            }
+            PendingReader pendingEntries = new PendingReader(pendingIn);
+            EntryReader entriesIn = new EntryReader(reader);
+            EntryReader chunkEntries = new EntryReader(chunkReader);
+            Entry entry;
+            while ((entry = pendingEntries.next()) != null || (entry = entriesIn.next()) != null
+                    || (entry = chunkEntries.next()) != null) {
+                if (cancelled) {
+                    // Stopped by a shutdown; record exactly where to resume, unless
+                    // still catching up, in which case the old checkpoint stands
+                    if (entries >= skip) {
+                        out.flush();
+                        new Checkpoint(total, entries, bytes.count(), skipped).write(checkpointFile);
+                    }
+                    interrupted = true;
+                    break;
+                }
+                if (entry.malformed()) {
+                    if (entries >= skip) {
+                        skipped++;
+                    }
+                    continue;
+                }
+                entries++;
+                if (entries <= skip) {
+                    continue;
+                }
+                out.write(format == Format.JSONL ? toJson(entry) : toCsv(entry));
+                if (entries % CHECKPOINT_INTERVAL == 0) {
+                    out.flush();
+                    new Checkpoint(total, entries, bytes.count(), skipped).write(checkpointFile);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MILLIS) {
+                    lastProgress = now;
+                    long read = pendingIn.count() + in.count() + chunkIn.count();
+                    progress.accept("Exported " + entries + " entries (" + (total == 0 ? 100 : read * 100 / total)
+                            + "%)");
+                }
+            }
+            out.flush();
+        }
+        if (!interrupted) {
+            Files.deleteIfExists(checkpointFile.toPath());
+            Files.deleteIfExists(snapshot.toPath());
+            Files.deleteIfExists(pendingSnapshot.toPath());
+            Files.deleteIfExists(chunkSnapshot.toPath());
+        }
+        return new Result(output, entries, skipped, resumed, interrupted);
+    }
+
+    /**
+     * Writes the cooldowns of altars in loaded chunks as a cooldowns mapping
+     * in the same form as data.yml. No file is written unless cooldowns are
+     * stored in chunks.
+     */
+    private void writeChunkCooldowns(File target) throws IOException {
+        ChunkCooldowns chunkCooldowns = plugin.getDataStore().getChunkCooldowns();
+        Map<String, Long> loaded = chunkCooldowns == null ? Map.of() : chunkCooldowns.getLoaded();
+        if (loaded.isEmpty()) {
+            Files.deleteIfExists(target.toPath());
+            return;
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target),
+                StandardCharsets.UTF_8))) {
+            out.write("cooldowns:\n");
+            for (Map.Entry<String, Long> entry : loaded.entrySet()) {
+                out.write("  '" + entry.getKey().replace("'", "''") + "': " + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    private static String toJson(Entry entry) {
+        StringBuilder line = new StringBuilder(96).append("{\"type\":\"").append(entry.type()).append('"');
+        switch (entry.type()) {
+            case "pending" -> line.append(",\"player\":\"").append(entry.key()).append('"');
+            case "cooldown" -> line.append(",\"altar\":").append(jsonString(entry.key()))
+                    .append(",\"time\":").append(entry.time());
+            default -> line.append(",\"id\":").append(entry.key())
+                    .append(",\"target\":\"").append(entry.target()).append('"')
+                    .append(",\"issuedAt\":").append(entry.time());
+        }
+        return line.append("}\n").toString();
+    }
+
+    private static String toCsv(Entry entry) {
+        return entry.type() + ',' + csvField(entry.key()) + ',' + (entry.target() == null ? "" : entry.target())
+                + ',' + (entry.time() < 0 ? "" : String.valueOf(entry.time())) + '\n';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.append('"').toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * One exported entry. Pending revives only have a key; cooldowns have a
+     * key and a time; tokens have all three. Time is -1 when absent.
+     */
+    private record Entry(String type, String key, UUID target, long time, boolean malformed) {
+        static final Entry MALFORMED = new Entry("", "", null, -1L, true);
+    }
+
+    /**
+     * Reads pending revives written by {@link UuidSet#writeTo}: a count
+     * followed by 16 bytes per player. A missing file holds none.
+     */
+    private static final class PendingReader {
+        private final DataInputStream in;
+        private int remaining = -1;
+
+        PendingReader(InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+        }
+
+        Entry next() throws IOException {
+            try {
+                if (remaining < 0) {
+                    remaining = in.readInt();
+                }
+                if (remaining == 0) {
+                    return null;
+                }
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                remaining--;
+                return new Entry("pending", uuid.toString(), null, -1L, false);
+            } catch (EOFException e) {
+                // Empty or truncated; a cut-off record is reported once as malformed
+                boolean truncated = remaining > 0;
+                remaining = 0;
+                return truncated ? Entry.MALFORMED : null;
+            }
+        }
+    }
+
+    /**
+     * Turns the YAML event stream into entries. Only the current path of
+     * mapping keys is held in memory.
+     */
+    private static final class EntryReader {
+        private final Iterator<Event> events;
+        // Open collections, innermost first; mappings hold their current key
+        private final Deque<Frame> frames = new ArrayDeque<>();
+
+        private static final class Frame {
+            final boolean mapping;
+            String key;
+
+            Frame(boolean mapping) {
+                this.mapping = mapping;
+            }
+        }
+
+        EntryReader(Reader reader) {
+            LoaderOptions options = new LoaderOptions();
+            // The default limit rejects files over a few megabytes
+            options.setCodePointLimit(Integer.MAX_VALUE);
+            this.events = new Yaml(options).parse(reader).iterator();
+        }
+
+        Entry next() {
+            while (events.hasNext()) {
+                Event event = events.next();
+                if (event instanceof MappingStartEvent) {
+                    frames.push(new Frame(true));
+                } else if (event instanceof SequenceStartEvent) {
+                    frames.push(new Frame(false));
+                } else if (event instanceof MappingEndEvent || event instanceof SequenceEndEvent) {
+                    frames.pop();
+                    // The collection was the value of its parent's current key
+                    if (!frames.isEmpty() && frames.peek().mapping) {
+                        frames.peek().key = null;
+                    }
+                } else if (event instanceof ScalarEvent scalar) {
+                    Frame frame = frames.peek();
+                    if (frame == null) {
+                        continue;
+                    }
+                    if (frame.mapping && frame.key == null) {
+                        frame.key = scalar.getValue();
+                        continue;
+                    }
+                    Entry entry = toEntry(scalar.getValue());
+                    if (frame.mapping) {
+                        frame.key = null;
+                    }
+                    if (entry != null) {
+                        return entry;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private Entry toEntry(String value) {
+            if (frames.size() < 2) {
+                return null;
+            }
+            Iterator<Frame> outward = frames.descendingIterator();
+            String section = outward.next().key;
+            if (section == null) {
+                return null;
+            }
+            switch (section) {
+                case "cooldowns" -> {
+                    // Keys containing dots are nested by YamlConfiguration; join them back up
+                    StringBuilder key = new StringBuilder();
+                    while (outward.hasNext()) {
+                        Frame frame = outward.next();
+                        if (frame.key != null) {
+                            key.append(key.length() == 0 ? "" : ".").append(frame.key);
+                        }
+                    }
+                    try {
+                        return new Entry("cooldown", key.toString(), null, Long.parseLong(value), false);
+                    } catch (NumberFormatException e) {
+                        return Entry.MALFORMED;
+                    }
+                }
+                case "issuedTokens" -> {
+                    String[] parts = value.split(":");
+                    try {
+                        if (parts.length == 3) {
+                            return new Entry("token", String.valueOf(Long.parseLong(parts[0])),
+                                    UUID.fromString(parts[1]), Long.parseLong(parts[2]), false);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // Falls through to malformed
+                    }
+                    return Entry.MALFORMED;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resume point of an interrupted export.
+     */
+    private record Checkpoint(long snapshotSize, long entries, long outputBytes, long skipped) {
+        static Checkpoint read(File file) {
+            if (!file.exists()) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+                return new Checkpoint(Long.parseLong(properties.getProperty("snapshotSize")),
+                        Long.parseLong(properties.getProperty("entries")),
+                        Long.parseLong(properties.getProperty("outputBytes")),
+                        Long.parseLong(properties.getProperty("skipped", "0")));
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        void write(File file) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("snapshotSize", String.valueOf(snapshotSize));
+            properties.setProperty("entries", String.valueOf(entries));
+            properties.setProperty("outputBytes", String.valueOf(outputBytes));
+            properties.setProperty("skipped", String.valueOf(skipped));
+            File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (OutputStream out = new FileOutputStream(temp)) {
+                properties.store(out, "HardcoreRevival export checkpoint");
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out, long initial) {
+            super(out);
+            this.count = initial;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
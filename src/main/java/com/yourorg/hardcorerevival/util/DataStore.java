@@ -4,38 +4,80 @@ import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Handles persistent storage for HardcoreRevival. This stores pending revives
- * for offline players as well as per-altar cooldown timestamps. The data is
+ * for offline players, per-altar cooldown timestamps and the index of issued
+ * revival tokens. The data is
  * stored in a YAML file in the plugin’s data folder and loaded on plugin
- * startup. Modifications should be followed by a save() call to write
- * changes to disk.
+ * startup, except for the pending revives, which are kept in a
+ * {@link UuidSet} and written to pending.bin as 16 bytes per player. When
+ * cooldowns.storage is chunk, altar cooldowns are kept in chunk data by
+ * {@link ChunkCooldowns} instead, and data.yml only holds those not yet
+ * imported into their chunks. Modifications should be followed by a save() call, which
+ * snapshots the data on the main thread and writes it to disk on the
+ * plugin executor. The {@link DeadPlayerRegistry} is kept alongside it in its
+ * own journal file.
  */
 public class DataStore {
     private final HardcoreRevivalPlugin plugin;
     private final File dataFile;
-    private FileConfiguration data;
+    private final File pendingFile;
+    // Set when an unreadable pending.bin could not be moved aside; it is then never overwritten
+    private volatile boolean keepPendingFile;
+    private final DeadPlayerRegistry deadPlayers;
+    // Null unless cooldowns are stored in chunk data
+    private final ChunkCooldowns chunkCooldowns;
+    // Newest snapshot not yet written; older ones are skipped
+    private final AtomicReference<Snapshot> pendingSave = new AtomicReference<>();
+    private final Object saveLock = new Object();
 
-    // Cache for quick lookups. These mirror the YAML contents and are
-    // synchronised on load/save.
-    private final Set<UUID> pendingRevives = new HashSet<>();
-    private final Map<String, Long> cooldowns = new HashMap<>();
+    // Cache for quick lookups. These mirror the files on disk and are
+    // synchronised on load/save. They are only modified on the main thread.
+    // Writes to the pending set hold its lock so async tasks can copy it;
+    // the other collections are concurrent so admin queries can read them.
+    private final UuidSet pendingRevives = new UuidSet();
+    private final Map<String, Long> cooldowns = new ConcurrentHashMap<>();
+    // Issued revival token ids mapped to the target they were issued for.
+    private final Map<Long, IssuedToken> issuedTokens = new HashMap<>();
+
+    private record IssuedToken(UUID target, long issuedAt) {
+    }
+
+    private record Snapshot(YamlConfiguration data, UuidSet pending, int entries) {
+    }
 
     public DataStore(HardcoreRevivalPlugin plugin) {
         this.plugin = plugin;
         this.dataFile = new File(plugin.getDataFolder(), "data.yml");
+        this.pendingFile = new File(plugin.getDataFolder(), "pending.bin");
+        this.deadPlayers = new DeadPlayerRegistry(plugin);
+        this.chunkCooldowns = "chunk".equalsIgnoreCase(plugin.getConfig().getString("cooldowns.storage", "data"))
+                ? new ChunkCooldowns(plugin) : null;
     }
 
     /**
-     * Loads data from data.yml into memory. If the file does not exist it is
-     * created with empty sections. Any IO errors will be logged but not
-     * propagated to callers.
+     * Loads data from data.yml and pending.bin into memory. If data.yml does
+     * not exist it is created with empty sections. Pending revives still
+     * listed in data.yml by older versions are moved to pending.bin. Any IO
+     * errors will be logged but not propagated to callers.
      */
     public void load() {
+        JfrEvents.DataLoad event = new JfrEvents.DataLoad();
+        event.begin();
         if (!dataFile.exists()) {
             try {
                 dataFile.getParentFile().mkdirs();
@@ -46,19 +88,24 @@ public class DataStore {
                 plugin.getLogger().severe("Failed to create data.yml: " + e.getMessage());
             }
         }
-        data = YamlConfiguration.loadConfiguration(dataFile);
-        pendingRevives.clear();
+        FileConfiguration data = YamlConfiguration.loadConfiguration(dataFile);
         cooldowns.clear();
+        issuedTokens.clear();
 
-        // Load pending revives
-        List<String> pendingList = data.getStringList("pendingRevives");
-        for (String uuidStr : pendingList) {
+        // Load pending revives, then any left in data.yml by older versions
+        UuidSet loaded = loadPendingFile();
+        List<String> legacyPending = data.getStringList("pendingRevives");
+        for (String uuidStr : legacyPending) {
             try {
-                pendingRevives.add(UUID.fromString(uuidStr));
+                loaded.add(UUID.fromString(uuidStr));
             } catch (IllegalArgumentException ignored) {
                 // Skip invalid UUID strings
             }
         }
+        synchronized (pendingRevives) {
+            pendingRevives.clear();
+            loaded.forEach(pendingRevives::add);
+        }
 
         // Load cooldowns: map of location key -> long timestamp
         if (data.isConfigurationSection("cooldowns")) {
@@ -67,33 +114,207 @@ public class DataStore {
                 cooldowns.put(key, time);
             }
         }
+
+        // Load issued tokens stored compactly as "id:uuid:issuedAt"
+        for (String entry : data.getStringList("issuedTokens")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 3) {
+                continue;
+            }
+            try {
+                issuedTokens.put(Long.parseLong(parts[0]),
+                        new IssuedToken(UUID.fromString(parts[1]), Long.parseLong(parts[2])));
+            } catch (IllegalArgumentException ignored) {
+                // Skip malformed token entries
+            }
+        }
+        pruneExpiredTokens();
+
+        // Replay the dead player journal
+        deadPlayers.load();
+        if (event.shouldCommit()) {
+            event.bytes = dataFile.length() + pendingFile.length();
+            event.pendingRevives = pendingRevives.size();
+            event.cooldowns = cooldowns.size();
+            event.issuedTokens = issuedTokens.size();
+            event.deadPlayers = deadPlayers.size();
+            event.commit();
+        }
+
+        if (!legacyPending.isEmpty()) {
+            // Rewrites data.yml without the list and creates pending.bin
+            plugin.getLogger().info("Moving " + legacyPending.size() + " pending revives from data.yml to pending.bin");
+            save();
+        }
+
+        if (chunkCooldowns != null) {
+            chunkCooldowns.loadAll();
+            if (!cooldowns.isEmpty()) {
+                importCooldowns();
+            }
+        }
+    }
+
+    private void importCooldowns() {
+        plugin.getLogger().info("Moving " + cooldowns.size() + " altar cooldowns from data.yml into chunk data");
+        chunkCooldowns.importAll(new HashMap<>(cooldowns), moved -> {
+            cooldowns.keySet().removeAll(moved);
+            save();
+            if (cooldowns.isEmpty()) {
+                plugin.getLogger().info("Moved " + moved.size() + " altar cooldowns into chunk data");
+            } else {
+                plugin.getLogger().warning(cooldowns.size() + " altar cooldowns could not be moved into chunk data;"
+                        + " they stay in data.yml and are retried on the next start");
+            }
+        });
+    }
+
+    private UuidSet loadPendingFile() {
+        if (!pendingFile.exists()) {
+            return new UuidSet();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pendingFile)))) {
+            return UuidSet.readFrom(in, pendingFile.length());
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load pending.bin: " + e.getMessage());
+        }
+        // Keep the unreadable file for inspection rather than saving over it
+        File aside = new File(pendingFile.getParentFile(), pendingFile.getName() + ".broken-" + System.currentTimeMillis());
+        try {
+            Files.move(pendingFile.toPath(), aside.toPath());
+            plugin.getLogger().severe("Moved the unreadable pending.bin to " + aside.getName());
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to move pending.bin aside: " + e.getMessage());
+            keepPendingFile = true;
+        }
+        return new UuidSet();
     }
 
     /**
-     * Saves the current in-memory pending revives and cooldowns to disk. Any IO
+     * Saves the current in-memory pending revives, cooldowns and tokens to disk. The
+     * data is copied on the calling thread and written in the background;
+     * when several saves queue up only the newest copy is written. Any IO
      * errors will be logged. This should be called whenever the state has
      * changed.
      */
     public void save() {
-        if (data == null) {
-            data = new YamlConfiguration();
-        }
-        // Persist pending revives
-        List<String> pendingList = new ArrayList<>();
-        for (UUID uuid : pendingRevives) {
-            pendingList.add(uuid.toString());
+        JfrEvents.DataSave event = new JfrEvents.DataSave();
+        event.begin();
+        YamlConfiguration data = new YamlConfiguration();
+        // Pending revives are copied as two arrays, not converted to strings
+        UuidSet pending;
+        synchronized (pendingRevives) {
+            pending = pendingRevives.copy();
         }
-        data.set("pendingRevives", pendingList);
 
-        // Persist cooldowns
+        // Persist cooldowns, clearing the section so removed keys disappear
+        data.set("cooldowns", null);
         for (Map.Entry<String, Long> entry : cooldowns.entrySet()) {
             data.set("cooldowns." + entry.getKey(), entry.getValue());
         }
-        try {
-            data.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save data.yml: " + e.getMessage());
+
+        // Persist issued tokens
+        List<String> tokenList = new ArrayList<>(issuedTokens.size());
+        for (Map.Entry<Long, IssuedToken> entry : issuedTokens.entrySet()) {
+            IssuedToken token = entry.getValue();
+            tokenList.add(entry.getKey() + ":" + token.target() + ":" + token.issuedAt());
+        }
+        data.set("issuedTokens", tokenList);
+        pendingSave.set(new Snapshot(data, pending, pending.size() + cooldowns.size() + tokenList.size()));
+        plugin.getExecutor().run(PluginExecutor.Resource.DISK, this::writePendingSave);
+        deadPlayers.flush();
+        if (event.shouldCommit()) {
+            event.pendingRevives = pending.size();
+            event.cooldowns = cooldowns.size();
+            event.issuedTokens = tokenList.size();
+            event.commit();
+        }
+    }
+
+    private void writePendingSave() {
+        synchronized (saveLock) {
+            Snapshot snapshot = pendingSave.getAndSet(null);
+            if (snapshot == null) {
+                // An earlier task already wrote the newest snapshot
+                return;
+            }
+            JfrEvents.DataWrite event = new JfrEvents.DataWrite();
+            event.begin();
+            // pending.bin goes first: data.yml may still hold the list from
+            // older versions, which is only dropped once pending.bin is in place
+            try {
+                if (keepPendingFile) {
+                    throw new IOException("the unreadable file is kept in place");
+                }
+                writePendingFile(snapshot.pending());
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to save pending.bin: " + e.getMessage()
+                        + "; keeping pending revives in data.yml");
+                List<String> legacy = new ArrayList<>(snapshot.pending().size());
+                snapshot.pending().forEach((msb, lsb) -> legacy.add(new UUID(msb, lsb).toString()));
+                snapshot.data().set("pendingRevives", legacy);
+            }
+            try {
+                snapshot.data().save(dataFile);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to save data.yml: " + e.getMessage());
+            }
+            if (event.shouldCommit()) {
+                event.bytes = dataFile.length() + pendingFile.length();
+                event.entries = snapshot.entries();
+                event.commit();
+            }
+        }
+    }
+
+    private void writePendingFile(UuidSet pending) throws IOException {
+        // Written beside the file and moved over it so a crash never leaves it half written
+        File temp = new File(pendingFile.getParentFile(), pendingFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            pending.writeTo(out);
         }
+        Files.move(temp.toPath(), pendingFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Copies data.yml and pending.bin to other files, after writing any save
+     * still queued, so the copies match the current data and each other. If
+     * pending.bin has not been written yet its copy is removed. Blocks; call
+     * it from the plugin executor.
+     *
+     * @param dataTarget    file to copy data.yml to
+     * @param pendingTarget file to copy pending.bin to
+     * @throws IOException if the copy fails
+     */
+    public void copyTo(File dataTarget, File pendingTarget) throws IOException {
+        synchronized (saveLock) {
+            writePendingSave();
+            Files.copy(dataFile.toPath(), dataTarget.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (pendingFile.exists()) {
+                Files.copy(pendingFile.toPath(), pendingTarget.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(pendingTarget.toPath());
+            }
+        }
+    }
+
+    /**
+     * Saves all data and closes the dead player journal. Called on disable;
+     * the final write completes when the plugin executor shuts down.
+     */
+    public void close() {
+        save();
+        deadPlayers.close();
+    }
+
+    /**
+     * Retrieves the registry of dead players.
+     *
+     * @return dead player registry
+     */
+    public DeadPlayerRegistry getDeadPlayers() {
+        return deadPlayers;
     }
 
     /**
@@ -112,7 +333,11 @@ public class DataStore {
      * @param uuid the player unique ID
      */
     public void addPendingRevive(UUID uuid) {
-        if (pendingRevives.add(uuid)) {
+        boolean added;
+        synchronized (pendingRevives) {
+            added = pendingRevives.add(uuid);
+        }
+        if (added) {
             save();
         }
     }
@@ -124,7 +349,98 @@ public class DataStore {
      * @param uuid the player unique ID
      */
     public void removePendingRevive(UUID uuid) {
-        if (pendingRevives.remove(uuid)) {
+        boolean removed;
+        synchronized (pendingRevives) {
+            removed = pendingRevives.remove(uuid);
+        }
+        if (removed) {
+            save();
+        }
+    }
+
+    /**
+     * Marks several players as pending a revival with a single save.
+     *
+     * @param uuids the player unique IDs
+     */
+    public void addPendingRevives(Collection<UUID> uuids) {
+        boolean changed = false;
+        synchronized (pendingRevives) {
+            for (UUID uuid : uuids) {
+                changed |= pendingRevives.add(uuid);
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    /**
+     * Removes several players from the pending revive list with a single
+     * save.
+     *
+     * @param uuids the player unique IDs
+     */
+    public void removePendingRevives(Collection<UUID> uuids) {
+        boolean changed = false;
+        synchronized (pendingRevives) {
+            for (UUID uuid : uuids) {
+                changed |= pendingRevives.remove(uuid);
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    /**
+     * Retrieves a copy of the pending revives. The copy is taken under the
+     * set's lock, so it may be made from async tasks while the main thread
+     * modifies the set.
+     *
+     * @return pending revive UUIDs
+     */
+    public UuidSet getPendingRevives() {
+        synchronized (pendingRevives) {
+            return pendingRevives.copy();
+        }
+    }
+
+    /**
+     * Retrieves the chunk cooldown storage.
+     *
+     * @return chunk cooldowns, or null unless cooldowns.storage is chunk
+     */
+    public ChunkCooldowns getChunkCooldowns() {
+        return chunkCooldowns;
+    }
+
+    /**
+     * Retrieves a read-only view of the altar cooldowns keyed by location.
+     * The view is safe to iterate from async tasks. With chunk storage it
+     * only covers altars in loaded chunks and cooldowns not yet imported.
+     *
+     * @return cooldown timestamps by location key
+     */
+    public Map<String, Long> getCooldowns() {
+        if (chunkCooldowns != null) {
+            Map<String, Long> combined = new HashMap<>(cooldowns);
+            combined.putAll(chunkCooldowns.getLoaded());
+            return Collections.unmodifiableMap(combined);
+        }
+        return Collections.unmodifiableMap(cooldowns);
+    }
+
+    /**
+     * Removes the cooldowns for several altars with a single save.
+     *
+     * @param keys location keys
+     */
+    public void removeCooldowns(Collection<String> keys) {
+        if (chunkCooldowns != null) {
+            chunkCooldowns.removeAll(keys);
+        }
+        if (cooldowns.keySet().removeAll(keys)) {
             save();
         }
     }
@@ -137,18 +453,68 @@ public class DataStore {
      * @return last usage time in milliseconds
      */
     public long getCooldown(String key) {
-        return cooldowns.getOrDefault(key, 0L);
+        long stored = cooldowns.getOrDefault(key, 0L);
+        return chunkCooldowns != null ? Math.max(stored, chunkCooldowns.get(key)) : stored;
     }
 
     /**
      * Updates the cooldown timestamp for the given altar location. The change
-     * is saved immediately.
+     * is saved immediately, to the altar's chunk when using chunk storage.
      *
      * @param key      the location key
      * @param millis   timestamp in milliseconds when the altar was used
      */
     public void setCooldown(String key, long millis) {
+        if (chunkCooldowns != null && chunkCooldowns.set(key, millis)) {
+            return;
+        }
         cooldowns.put(key, millis);
         save();
     }
-}
\ No newline at end of file
+
+    /**
+     * Records a revival token as issued. The change is saved immediately.
+     *
+     * @param id       the token id stamped on the head
+     * @param target   the player the token revives
+     * @param issuedAt time the token was issued in milliseconds
+     */
+    public void addIssuedToken(long id, UUID target, long issuedAt) {
+        issuedTokens.put(id, new IssuedToken(target, issuedAt));
+        save();
+    }
+
+    /**
+     * Checks whether a token id was issued for the given target and has not
+     * been redeemed yet.
+     *
+     * @param id     the token id
+     * @param target the target stamped alongside the id
+     * @return true if the token is outstanding for that target
+     */
+    public boolean isTokenIssued(long id, UUID target) {
+        IssuedToken token = issuedTokens.get(id);
+        return token != null && token.target().equals(target);
+    }
+
+    /**
+     * Removes a token from the issued index once it has been redeemed. The
+     * change is saved immediately.
+     *
+     * @param id the token id
+     */
+    public void removeIssuedToken(long id) {
+        if (issuedTokens.remove(id) != null) {
+            save();
+        }
+    }
+
+    private void pruneExpiredTokens() {
+        long maxAgeDays = plugin.getConfig().getLong("tokens.maxAgeDays", 90L);
+        if (maxAgeDays <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - maxAgeDays * 86_400_000L;
+        issuedTokens.values().removeIf(token -> token.issuedAt() < cutoff);
+    }
+}
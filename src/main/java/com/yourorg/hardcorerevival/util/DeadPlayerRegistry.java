@@ -0,0 +1,324 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Authoritative record of which players are dead, with the time, location
+ * and cause of each death. Lookups are served from memory. Changes are
+ * appended to a binary journal (dead-players.journal) rather than rewriting
+ * the whole data set, and the journal is compacted on load once it holds
+ * far more records than there are dead players.
+ *
+ * <p>Records are encoded on the main thread and written to the journal by
+ * the plugin executor, so a death or revive never waits for the disk. Only
+ * {@link #load()} and {@link #close()} touch the file on the calling
+ * thread.</p>
+ */
+public class DeadPlayerRegistry {
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int COMPACT_MIN_RECORDS = 1024;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final File journalFile;
+    // Modified on the main thread only; concurrent so async queries can read it
+    private final Map<UUID, DeathRecord> dead = new ConcurrentHashMap<>();
+    // Records encoded since the last flush; main thread only
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    private final DataOutputStream encoder = new DataOutputStream(encoded);
+    // Flushed batches waiting for the writer, in order
+    private final Queue<byte[]> unwritten = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    // Only used while holding writeLock
+    private DataOutputStream journal;
+    private int journalRecords;
+
+    /**
+     * Details of a single death.
+     */
+    public record DeathRecord(UUID player, String name, long time, String world, double x, double y, double z,
+                              String cause) {
+    }
+
+    public DeadPlayerRegistry(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.journalFile = new File(plugin.getDataFolder(), "dead-players.journal");
+    }
+
+    /**
+     * Replays the journal into memory and opens it for appending. A record
+     * truncated by a crash at the end of the journal is dropped and the
+     * journal is rewritten without it.
+     */
+    public void load() {
+        close();
+        dead.clear();
+        journalRecords = 0;
+        boolean damaged = false;
+        if (journalFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+                while (true) {
+                    int op = in.read();
+                    if (op == -1) {
+                        break;
+                    }
+                    if (op == OP_ADD) {
+                        DeathRecord record = readRecord(in);
+                        dead.put(record.player(), record);
+                    } else if (op == OP_REMOVE) {
+                        dead.remove(new UUID(in.readLong(), in.readLong()));
+                    } else {
+                        plugin.getLogger().warning("Corrupt record in dead-players.journal; ignoring the rest");
+                        damaged = true;
+                        break;
+                    }
+                    journalRecords++;
+                }
+            } catch (EOFException e) {
+                plugin.getLogger().warning("Truncated record at the end of dead-players.journal; dropping it");
+                damaged = true;
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to read dead-players.journal: " + e.getMessage());
+            }
+        }
+        if (damaged || (journalRecords > COMPACT_MIN_RECORDS && journalRecords > dead.size() * 2)) {
+            compact();
+        }
+        synchronized (writeLock) {
+            try {
+                journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to open dead-players.journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hands the records changed since the last flush to the plugin executor
+     * for writing. Must be called on the main thread.
+     */
+    public void flush() {
+        if (encoded.size() == 0) {
+            return;
+        }
+        unwritten.add(encoded.toByteArray());
+        encoded.reset();
+        plugin.getExecutor().run(PluginExecutor.Resource.DISK, this::writeUnwritten);
+    }
+
+    /**
+     * Writes every queued record and closes the journal. Blocks until the
+     * records are on disk; called on disable.
+     */
+    public void close() {
+        flush();
+        synchronized (writeLock) {
+            writeUnwritten();
+            if (journal == null) {
+                return;
+            }
+            try {
+                journal.close();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to close dead-players.journal: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    private void writeUnwritten() {
+        synchronized (writeLock) {
+            byte[] batch;
+            while ((batch = unwritten.poll()) != null) {
+                if (journal == null) {
+                    continue;
+                }
+                try {
+                    journal.write(batch);
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Failed to write dead-players.journal: " + e.getMessage());
+                }
+            }
+            if (journal != null) {
+                try {
+                    journal.flush();
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Failed to write dead-players.journal: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a death, replacing any earlier record for the same player.
+     *
+     * @param record the death details
+     */
+    public void markDead(DeathRecord record) {
+        dead.put(record.player(), record);
+        append(OP_ADD, record, record.player());
+        flush();
+    }
+
+    /**
+     * Records several deaths with a single flush.
+     *
+     * @param records the death details
+     */
+    public void markAllDead(Collection<DeathRecord> records) {
+        for (DeathRecord record : records) {
+            dead.put(record.player(), record);
+            append(OP_ADD, record, record.player());
+        }
+        flush();
+    }
+
+    /**
+     * Removes a player from the registry, typically once they are revived.
+     *
+     * @param uuid the player unique ID
+     */
+    public void remove(UUID uuid) {
+        if (dead.remove(uuid) != null) {
+            append(OP_REMOVE, null, uuid);
+            flush();
+        }
+    }
+
+    /**
+     * Removes several players from the registry.
+     *
+     * @param uuids the player unique IDs
+     */
+    public void removeAll(Collection<UUID> uuids) {
+        for (UUID uuid : uuids) {
+            if (dead.remove(uuid) != null) {
+                append(OP_REMOVE, null, uuid);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Checks whether the player is recorded as dead.
+     *
+     * @param uuid the player unique ID
+     * @return true if the player is dead
+     */
+    public boolean isDead(UUID uuid) {
+        return dead.containsKey(uuid);
+    }
+
+    /**
+     * Retrieves the death details for a player.
+     *
+     * @param uuid the player unique ID
+     * @return the death record, or null if the player is not dead
+     */
+    public DeathRecord get(UUID uuid) {
+        return dead.get(uuid);
+    }
+
+    /**
+     * Retrieves every current death record. The view is read-only and safe
+     * to iterate from async tasks.
+     *
+     * @return live view of the death records
+     */
+    public Collection<DeathRecord> getAll() {
+        return Collections.unmodifiableCollection(dead.values());
+    }
+
+    /**
+     * Retrieves the number of players currently recorded as dead.
+     *
+     * @return number of dead players
+     */
+    public int size() {
+        return dead.size();
+    }
+
+    private void append(byte op, DeathRecord record, UUID uuid) {
+        try {
+            encoder.writeByte(op);
+            if (op == OP_ADD) {
+                writeRecord(encoder, record);
+            } else {
+                encoder.writeLong(uuid.getMostSignificantBits());
+                encoder.writeLong(uuid.getLeastSignificantBits());
+            }
+            journalRecords++;
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Rewrites the journal so it holds exactly one record per dead player.
+     * The new journal is written to a temporary file and moved into place.
+     */
+    private void compact() {
+        File temp = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            for (DeathRecord record : dead.values()) {
+                out.writeByte(OP_ADD);
+                writeRecord(out, record);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to compact dead-players.journal: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            journalRecords = dead.size();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to replace dead-players.journal: " + e.getMessage());
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, DeathRecord record) throws IOException {
+        out.writeLong(record.player().getMostSignificantBits());
+        out.writeLong(record.player().getLeastSignificantBits());
+        out.writeUTF(record.name());
+        out.writeLong(record.time());
+        out.writeUTF(record.world());
+        out.writeDouble(record.x());
+        out.writeDouble(record.y());
+        out.writeDouble(record.z());
+        out.writeUTF(record.cause());
+    }
+
+    private static DeathRecord readRecord(DataInputStream in) throws IOException {
+        UUID uuid = new UUID(in.readLong(), in.readLong());
+        String name = in.readUTF();
+        long time = in.readLong();
+        String world = in.readUTF();
+        double x = in.readDouble();
+        double y = in.readDouble();
+        double z = in.readDouble();
+        String cause = in.readUTF();
+        return new DeathRecord(uuid, name, time, world, x, y, z, cause);
+    }
+}
@@ -31,6 +31,7 @@ public final class EffectsUtil {
      * @param location location at which to play sounds
      */
     public static void playSounds(final HardcoreRevivalPlugin plugin, final Location location) {
+        JfrEvents.EffectsScheduled event = JfrEvents.EFFECTS_SCHEDULED.isEnabled() ? begin() : null;
         List<Map<?, ?>> soundList = plugin.getConfig().getMapList("sounds");
         long accumulatedDelay = 0L;
         for (Map<?, ?> map : soundList) {
@@ -53,6 +54,7 @@ public final class EffectsUtil {
                 }
             }.runTaskLater(plugin, runDelay);
         }
+        commit(event, "sounds", soundList.size(), accumulatedDelay);
     }
 
     /**
@@ -64,6 +66,7 @@ public final class EffectsUtil {
      * @param location central location for particle spawning
      */
     public static void spawnParticles(final HardcoreRevivalPlugin plugin, final Location location) {
+        JfrEvents.EffectsScheduled event = JfrEvents.EFFECTS_SCHEDULED.isEnabled() ? begin() : null;
         List<Map<?, ?>> particles = plugin.getConfig().getMapList("particles");
         for (Map<?, ?> map : particles) {
             String typeName = String.valueOf(map.getOrDefault("type", ""));
@@ -78,6 +81,7 @@ public final class EffectsUtil {
                 plugin.getLogger().warning("Unknown particle configured: " + typeName);
             }
         }
+        commit(event, "particles", particles.size(), 0L);
     }
 
     /**
@@ -89,6 +93,7 @@ public final class EffectsUtil {
      * @param location location at which to spawn lightning
      */
     public static void spawnLightning(final HardcoreRevivalPlugin plugin, final Location location) {
+        JfrEvents.EffectsScheduled event = JfrEvents.EFFECTS_SCHEDULED.isEnabled() ? begin() : null;
         boolean noDamage = plugin.getConfig().getBoolean("settings.lightningNoDamage", true);
         if (noDamage) {
             // Use the effect-only method to avoid damage and fire
@@ -96,5 +101,21 @@ public final class EffectsUtil {
         } else {
             location.getWorld().strikeLightning(location);
         }
+        commit(event, "lightning", 1, 0L);
+    }
+
+    private static JfrEvents.EffectsScheduled begin() {
+        JfrEvents.EffectsScheduled event = new JfrEvents.EffectsScheduled();
+        event.begin();
+        return event;
+    }
+
+    private static void commit(JfrEvents.EffectsScheduled event, String effect, int count, long lastDelayTicks) {
+        if (event != null && event.shouldCommit()) {
+            event.effect = effect;
+            event.count = count;
+            event.lastDelayTicks = lastDelayTicks;
+            event.commit();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,640 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only history of deaths and revives. Raw events are written to one
+ * binary segment per day under history/, and per-hour and per-day rollups
+ * are updated in memory as each event arrives. Queries such as /hrhistory
+ * are answered from the rollups alone, so old raw segments can be deleted
+ * once they fall outside history.rawRetentionDays without losing the
+ * counts.
+ *
+ * <p>The rollups are saved to history/rollups.bin together with the segment
+ * position they cover. On load, any events written after that position, for
+ * example before a crash, are replayed into the rollups. Must only be used
+ * from the main thread.</p>
+ *
+ * <p>Events and rollups are encoded on the main thread and written by the
+ * plugin executor, in the order they were recorded. When several rollup
+ * saves queue up only the newest is written. Only {@link #load()} and
+ * {@link #close()} touch the files on the calling thread.</p>
+ */
+public class HistoryStore {
+    private static final byte TYPE_DEATH = 1;
+    private static final byte TYPE_REVIVE = 2;
+    private static final int ROLLUP_MAGIC = 0x48524831;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    private final HardcoreRevivalPlugin plugin;
+    private final boolean enabled;
+    private final File directory;
+    private final File rollupFile;
+    private final ZoneId zone = ZoneId.systemDefault();
+    // Keyed by epoch hour and by local epoch day respectively
+    private final NavigableMap<Long, Bucket> hours = new TreeMap<>();
+    private final NavigableMap<Long, Bucket> days = new TreeMap<>();
+    // Latest known name for every player referenced by a daily rollup
+    private final Map<UUID, String> names = new HashMap<>();
+    // Day and length of the segment being appended to, counting queued events
+    private long segmentDay = Long.MIN_VALUE;
+    private long segmentLength;
+    private long lastSavedHour = Long.MIN_VALUE;
+    // Segment writes and deletions waiting for the writer, in order
+    private final Queue<Runnable> unwritten = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<byte[]> pendingRollups = new AtomicReference<>();
+    private final Object writeLock = new Object();
+    // Only used while holding writeLock
+    private DataOutputStream segment;
+    private long openDay = Long.MIN_VALUE;
+
+    /**
+     * Counts for one hour or one day. Per-altar and per-player counts are
+     * only kept for days.
+     */
+    private static final class Bucket {
+        int deaths;
+        int revives;
+        final Map<String, Integer> revivesByAltar = new HashMap<>();
+        final Map<UUID, Integer> deathsByPlayer = new HashMap<>();
+    }
+
+    /**
+     * Totals for one hour or day, starting at {@code start} (epoch millis).
+     */
+    public record Period(long start, int deaths, int revives) {
+    }
+
+    /**
+     * An altar or player and how often it appeared in the queried period.
+     */
+    public record Ranked(String name, int count) {
+    }
+
+    public HistoryStore(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("history.enabled", true);
+        this.directory = new File(plugin.getDataFolder(), "history");
+        this.rollupFile = new File(directory, "rollups.bin");
+    }
+
+    /**
+     * Loads the saved rollups, replays any raw events they do not yet cover
+     * and applies the retention settings.
+     */
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            plugin.getLogger().warning("Could not create history directory");
+            return;
+        }
+        long[] watermark = readRollups();
+        replaySegments(watermark[0], watermark[1]);
+        // Everything up to the end of the newest segment is now covered
+        Map.Entry<Long, File> last = listSegments().lastEntry();
+        segmentDay = last != null ? last.getKey() : Long.MIN_VALUE;
+        segmentLength = last != null ? last.getValue().length() : 0L;
+        long today = currentDay();
+        prune(today);
+        deleteOldSegments(today, plugin.getConfig().getInt("history.rawRetentionDays", 30));
+        saveRollups();
+    }
+
+    /**
+     * Writes every queued event and the rollups, and closes the open
+     * segment. Blocks until they are on disk; called on disable.
+     */
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        pendingRollups.set(encodeRollups());
+        synchronized (writeLock) {
+            writeUnwritten();
+            closeSegment();
+        }
+    }
+
+    /**
+     * Records a death.
+     *
+     * @param player UUID of the player who died
+     * @param name   player name
+     * @param world  world the player died in
+     * @param cause  damage cause
+     * @param time   time of death in epoch millis
+     */
+    public void recordDeath(UUID player, String name, String world, String cause, long time) {
+        record(TYPE_DEATH, time, player, name, world, cause);
+    }
+
+    /**
+     * Records a revive.
+     *
+     * @param player   UUID of the revived player
+     * @param name     player name
+     * @param altarKey serialised altar location, or "command" for admin revives
+     * @param reviver  name of the player or admin who performed the revive
+     * @param time     time of the revive in epoch millis
+     */
+    public void recordRevive(UUID player, String name, String altarKey, String reviver, long time) {
+        record(TYPE_REVIVE, time, player, name, altarKey, reviver);
+    }
+
+    private void record(byte type, long time, UUID player, String name, String place, String detail) {
+        if (!enabled) {
+            return;
+        }
+        long day = dayOf(time);
+        if (day != segmentDay) {
+            // First event of a new day: start its segment and expire old data.
+            // Usually it does not exist yet, unless the clock was set back.
+            segmentDay = day;
+            segmentLength = segmentFile(day).length();
+            prune(day);
+            int rawDays = plugin.getConfig().getInt("history.rawRetentionDays", 30);
+            unwritten.add(() -> deleteOldSegments(day, rawDays));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            writeEvent(new DataOutputStream(bytes), type, time, player, name, place, detail);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        byte[] event = bytes.toByteArray();
+        segmentLength += event.length;
+        unwritten.add(() -> appendEvent(day, event));
+        fold(type, time, player, name, place);
+        long hour = Math.floorDiv(time, HOUR_MILLIS);
+        if (hour != lastSavedHour) {
+            saveRollups();
+        } else {
+            plugin.getExecutor().run(PluginExecutor.Resource.DISK, this::writeQueued);
+        }
+    }
+
+    /**
+     * Retrieves death and revive totals for the most recent hours or days,
+     * oldest first. Periods without events are included with zero counts.
+     *
+     * @param hourly true for hourly periods, false for daily periods
+     * @param count  number of periods ending with the current one
+     * @return one entry per period
+     */
+    public List<Period> totals(boolean hourly, int count) {
+        List<Period> periods = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        long last = hourly ? Math.floorDiv(now, HOUR_MILLIS) : dayOf(now);
+        for (long key = last - count + 1; key <= last; key++) {
+            Bucket bucket = (hourly ? hours : days).get(key);
+            long start = hourly ? key * HOUR_MILLIS
+                    : LocalDate.ofEpochDay(key).atStartOfDay(zone).toInstant().toEpochMilli();
+            periods.add(new Period(start, bucket == null ? 0 : bucket.deaths, bucket == null ? 0 : bucket.revives));
+        }
+        return periods;
+    }
+
+    /**
+     * Ranks altars by the number of revives performed at them.
+     *
+     * @param dayCount number of days to include, ending today
+     * @param limit    maximum number of altars returned
+     * @return altars with the most revives first
+     */
+    public List<Ranked> topAltars(int dayCount, int limit) {
+        Map<String, Integer> totals = new HashMap<>();
+        for (Bucket bucket : recentDays(dayCount)) {
+            bucket.revivesByAltar.forEach((altar, count) -> totals.merge(altar, count, Integer::sum));
+        }
+        return rank(totals, limit);
+    }
+
+    /**
+     * Ranks players by the number of times they died.
+     *
+     * @param dayCount number of days to include, ending today
+     * @param limit    maximum number of players returned
+     * @return players with the most deaths first
+     */
+    public List<Ranked> topPlayers(int dayCount, int limit) {
+        Map<String, Integer> totals = new HashMap<>();
+        for (Bucket bucket : recentDays(dayCount)) {
+            bucket.deathsByPlayer.forEach((uuid, count) ->
+                    totals.merge(names.getOrDefault(uuid, uuid.toString()), count, Integer::sum));
+        }
+        return rank(totals, limit);
+    }
+
+    private Iterable<Bucket> recentDays(int dayCount) {
+        long today = dayOf(System.currentTimeMillis());
+        return days.subMap(today - dayCount + 1, true, today, true).values();
+    }
+
+    private static List<Ranked> rank(Map<String, Integer> totals, int limit) {
+        List<Ranked> ranked = new ArrayList<>(totals.size());
+        totals.forEach((name, count) -> ranked.add(new Ranked(name, count)));
+        ranked.sort(Comparator.comparingInt(Ranked::count).reversed().thenComparing(Ranked::name));
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    private void fold(byte type, long time, UUID player, String name, String place) {
+        Bucket hour = hours.computeIfAbsent(Math.floorDiv(time, HOUR_MILLIS), key -> new Bucket());
+        Bucket day = days.computeIfAbsent(dayOf(time), key -> new Bucket());
+        if (type == TYPE_DEATH) {
+            hour.deaths++;
+            day.deaths++;
+            day.deathsByPlayer.merge(player, 1, Integer::sum);
+        } else {
+            hour.revives++;
+            day.revives++;
+            day.revivesByAltar.merge(place, 1, Integer::sum);
+        }
+        names.put(player, name);
+    }
+
+    /**
+     * Drops rollups older than their retention windows.
+     */
+    private void prune(long today) {
+        int hourlyDays = plugin.getConfig().getInt("history.hourlyRetentionDays", 7);
+        int dailyDays = plugin.getConfig().getInt("history.dailyRetentionDays", 365);
+        if (hourlyDays > 0) {
+            long firstHour = LocalDate.ofEpochDay(today - hourlyDays + 1).atStartOfDay(zone).toInstant()
+                    .toEpochMilli() / HOUR_MILLIS;
+            hours.headMap(firstHour, false).clear();
+        }
+        if (dailyDays > 0) {
+            days.headMap(today - dailyDays + 1, false).clear();
+            UuidSet referenced = referencedPlayers();
+            names.keySet().removeIf(uuid -> !referenced.contains(uuid));
+        }
+    }
+
+    private UuidSet referencedPlayers() {
+        UuidSet referenced = new UuidSet();
+        for (Bucket bucket : days.values()) {
+            for (UUID uuid : bucket.deathsByPlayer.keySet()) {
+                referenced.add(uuid);
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * Deletes raw segments older than history.rawRetentionDays.
+     */
+    private void deleteOldSegments(long today, int rawDays) {
+        if (rawDays <= 0) {
+            return;
+        }
+        for (File file : listSegments().values()) {
+            long day = segmentDayOf(file);
+            if (day <= today - rawDays && !file.delete()) {
+                plugin.getLogger().warning("Could not delete " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Runs the queued segment writes in order, then writes the newest
+     * rollups. The rollups are taken first: they only cover events queued
+     * before them, which are then sure to be written ahead of them.
+     */
+    private void writeQueued() {
+        synchronized (writeLock) {
+            byte[] rollups = pendingRollups.getAndSet(null);
+            writeUnwritten();
+            if (rollups != null) {
+                writeRollups(rollups);
+            }
+        }
+    }
+
+    private void writeUnwritten() {
+        Runnable write;
+        while ((write = unwritten.poll()) != null) {
+            write.run();
+        }
+        if (segment != null) {
+            try {
+                segment.flush();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to write history event: " + e.getMessage());
+            }
+        }
+    }
+
+    private void appendEvent(long day, byte[] event) {
+        if (day != openDay) {
+            closeSegment();
+            File file = segmentFile(day);
+            try {
+                segment = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+                openDay = day;
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to open " + file.getName() + ": " + e.getMessage());
+                return;
+            }
+        }
+        try {
+            segment.write(event);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write history event: " + e.getMessage());
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to close history segment: " + e.getMessage());
+        }
+        segment = null;
+        openDay = Long.MIN_VALUE;
+    }
+
+    /**
+     * Replays every event after the given segment position into the
+     * rollups. A record truncated by a crash is cut off the end of its
+     * segment so later appends start on a record boundary.
+     */
+    private void replaySegments(long fromDay, long fromOffset) {
+        for (Map.Entry<Long, File> entry : listSegments().entrySet()) {
+            long day = entry.getKey();
+            if (day < fromDay) {
+                continue;
+            }
+            File file = entry.getValue();
+            byte[] data;
+            try {
+                data = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to read " + file.getName() + ": " + e.getMessage());
+                continue;
+            }
+            long start = day == fromDay ? fromOffset : 0L;
+            if (start > data.length) {
+                // The segment is shorter than the rollups expected; count it again
+                start = 0L;
+            }
+            ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+            bytes.skip(start);
+            DataInputStream in = new DataInputStream(bytes);
+            long good = start;
+            try {
+                while (bytes.available() > 0) {
+                    byte type = in.readByte();
+                    long time = in.readLong();
+                    UUID player = new UUID(in.readLong(), in.readLong());
+                    String name = in.readUTF();
+                    String place = in.readUTF();
+                    in.readUTF();
+                    if (type != TYPE_DEATH && type != TYPE_REVIVE) {
+                        throw new IOException("unknown event type " + type);
+                    }
+                    fold(type, time, player, name, place);
+                    good = data.length - bytes.available();
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Damaged record in " + file.getName() + "; dropping the rest");
+                truncate(file, good);
+            }
+        }
+    }
+
+    private void truncate(File file, long length) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to truncate " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads rollups.bin.
+     *
+     * @return the day and byte offset of the last segment position covered
+     */
+    private long[] readRollups() {
+        hours.clear();
+        days.clear();
+        names.clear();
+        long[] watermark = {Long.MIN_VALUE, 0L};
+        if (!rollupFile.exists()) {
+            return watermark;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(rollupFile)))) {
+            if (in.readInt() != ROLLUP_MAGIC) {
+                throw new IOException("unknown format");
+            }
+            watermark[0] = in.readLong();
+            watermark[1] = in.readLong();
+            int nameCount = in.readInt();
+            for (int i = 0; i < nameCount; i++) {
+                names.put(new UUID(in.readLong(), in.readLong()), in.readUTF());
+            }
+            int hourCount = in.readInt();
+            for (int i = 0; i < hourCount; i++) {
+                long key = in.readLong();
+                Bucket bucket = new Bucket();
+                bucket.deaths = in.readInt();
+                bucket.revives = in.readInt();
+                hours.put(key, bucket);
+            }
+            int dayCount = in.readInt();
+            for (int i = 0; i < dayCount; i++) {
+                long key = in.readLong();
+                Bucket bucket = new Bucket();
+                bucket.deaths = in.readInt();
+                bucket.revives = in.readInt();
+                int altars = in.readInt();
+                for (int j = 0; j < altars; j++) {
+                    bucket.revivesByAltar.put(in.readUTF(), in.readInt());
+                }
+                int players = in.readInt();
+                for (int j = 0; j < players; j++) {
+                    bucket.deathsByPlayer.put(new UUID(in.readLong(), in.readLong()), in.readInt());
+                }
+                days.put(key, bucket);
+            }
+        } catch (EOFException e) {
+            plugin.getLogger().warning("Truncated history/rollups.bin; rebuilding from raw events");
+            return resetRollups();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not read history/rollups.bin (" + e.getMessage()
+                    + "); rebuilding from raw events");
+            return resetRollups();
+        }
+        return watermark;
+    }
+
+    private long[] resetRollups() {
+        hours.clear();
+        days.clear();
+        names.clear();
+        return new long[]{Long.MIN_VALUE, 0L};
+    }
+
+    /**
+     * Encodes the rollups and hands them to the plugin executor, which
+     * writes them after the events queued so far.
+     */
+    private void saveRollups() {
+        pendingRollups.set(encodeRollups());
+        lastSavedHour = Math.floorDiv(System.currentTimeMillis(), HOUR_MILLIS);
+        plugin.getExecutor().run(PluginExecutor.Resource.DISK, this::writeQueued);
+    }
+
+    /**
+     * Encodes the rollups together with the segment position they cover,
+     * which includes every event queued so far.
+     */
+    private byte[] encodeRollups() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(ROLLUP_MAGIC);
+            out.writeLong(segmentDay);
+            out.writeLong(segmentLength);
+            out.writeInt(names.size());
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeUTF(entry.getValue());
+            }
+            out.writeInt(hours.size());
+            for (Map.Entry<Long, Bucket> entry : hours.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue().deaths);
+                out.writeInt(entry.getValue().revives);
+            }
+            out.writeInt(days.size());
+            for (Map.Entry<Long, Bucket> entry : days.entrySet()) {
+                Bucket bucket = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeInt(bucket.deaths);
+                out.writeInt(bucket.revives);
+                out.writeInt(bucket.revivesByAltar.size());
+                for (Map.Entry<String, Integer> altar : bucket.revivesByAltar.entrySet()) {
+                    out.writeUTF(altar.getKey());
+                    out.writeInt(altar.getValue());
+                }
+                out.writeInt(bucket.deathsByPlayer.size());
+                for (Map.Entry<UUID, Integer> player : bucket.deathsByPlayer.entrySet()) {
+                    out.writeLong(player.getKey().getMostSignificantBits());
+                    out.writeLong(player.getKey().getLeastSignificantBits());
+                    out.writeInt(player.getValue());
+                }
+            }
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes encoded rollups to a temporary file and moves it over
+     * rollups.bin.
+     */
+    private void writeRollups(byte[] rollups) {
+        File temp = new File(directory, rollupFile.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(rollups);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write history/rollups.bin: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), rollupFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to replace history/rollups.bin: " + e.getMessage());
+        }
+    }
+
+    private static void writeEvent(DataOutputStream out, byte type, long time, UUID player, String name,
+                                   String place, String detail) throws IOException {
+        out.writeByte(type);
+        out.writeLong(time);
+        out.writeLong(player.getMostSignificantBits());
+        out.writeLong(player.getLeastSignificantBits());
+        out.writeUTF(name);
+        out.writeUTF(place);
+        out.writeUTF(detail);
+    }
+
+    private NavigableMap<Long, File> listSegments() {
+        NavigableMap<Long, File> segments = new TreeMap<>();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX)
+                && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                long day = segmentDayOf(file);
+                if (day != Long.MIN_VALUE) {
+                    segments.put(day, file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private File segmentFile(long day) {
+        return new File(directory, SEGMENT_PREFIX + LocalDate.ofEpochDay(day) + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentDayOf(File file) {
+        String name = file.getName();
+        try {
+            return LocalDate.parse(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))
+                    .toEpochDay();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private long currentDay() {
+        return dayOf(System.currentTimeMillis());
+    }
+
+    private long dayOf(long time) {
+        return Instant.ofEpochMilli(time).atZone(zone).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,161 @@
+package com.yourorg.hardcorerevival.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the plugin's main stages, so a recording
+ * shows altar validation, data persistence, effects and revivals next to GC
+ * and tick activity. The events are disabled unless a recording enables
+ * them, for example with the hardcorerevival.jfc settings the plugin writes
+ * to its data folder:
+ *
+ * <pre>-XX:StartFlightRecording=settings=default,settings=plugins/HardcoreRevival/hardcorerevival.jfc</pre>
+ *
+ * <p>Callers only fill in fields and {@code commit()} when
+ * {@code shouldCommit()} is true. Code that runs per attempt or per effect
+ * checks the event's {@link EventType} before creating it at all, so with
+ * recording off it costs a field read.</p>
+ */
+public final class JfrEvents {
+    private static final String CATEGORY = "HardcoreRevival";
+
+    public static final EventType ALTAR_VALIDATION = EventType.getEventType(AltarValidation.class);
+    public static final EventType DATA_LOAD = EventType.getEventType(DataLoad.class);
+    public static final EventType DATA_SAVE = EventType.getEventType(DataSave.class);
+    public static final EventType DATA_WRITE = EventType.getEventType(DataWrite.class);
+    public static final EventType EFFECTS_SCHEDULED = EventType.getEventType(EffectsScheduled.class);
+    public static final EventType HEAD_DROP = EventType.getEventType(HeadDrop.class);
+    public static final EventType REVIVE_COMPLETED = EventType.getEventType(ReviveCompleted.class);
+
+    private JfrEvents() {
+    }
+
+    @Name("hardcorerevival.AltarValidation")
+    @Label("Altar Validation")
+    @Description("An altar structure and its chests were checked")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class AltarValidation extends Event {
+        @Label("World")
+        public String world;
+        @Label("X")
+        public int x;
+        @Label("Y")
+        public int y;
+        @Label("Z")
+        public int z;
+        @Label("Valid")
+        public boolean valid;
+        @Label("Error Key")
+        @Description("Message key of the failure, or null if the altar is valid")
+        public String errorKey;
+        @Label("Chests Scanned")
+        public int chestsScanned;
+        @Label("Slots Scanned")
+        public int slotsScanned;
+    }
+
+    @Name("hardcorerevival.DataLoad")
+    @Label("Data Load")
+    @Description("data.yml, pending.bin and the dead player journal were read")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class DataLoad extends Event {
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Pending Revives")
+        public int pendingRevives;
+        @Label("Cooldowns")
+        public int cooldowns;
+        @Label("Issued Tokens")
+        public int issuedTokens;
+        @Label("Dead Players")
+        public int deadPlayers;
+    }
+
+    @Name("hardcorerevival.DataSave")
+    @Label("Data Save")
+    @Description("The data was copied on the main thread for a background write")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class DataSave extends Event {
+        @Label("Pending Revives")
+        public int pendingRevives;
+        @Label("Cooldowns")
+        public int cooldowns;
+        @Label("Issued Tokens")
+        public int issuedTokens;
+    }
+
+    @Name("hardcorerevival.DataWrite")
+    @Label("Data Write")
+    @Description("A saved copy of the data was written to disk")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class DataWrite extends Event {
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Entries")
+        public int entries;
+    }
+
+    @Name("hardcorerevival.EffectsScheduled")
+    @Label("Effects Scheduled")
+    @Description("Revival sounds, particles or lightning were spawned or scheduled")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class EffectsScheduled extends Event {
+        @Label("Effect")
+        public String effect;
+        @Label("Count")
+        @Description("Sounds scheduled or particle types spawned")
+        public int count;
+        @Label("Last Delay Ticks")
+        @Description("Delay of the last scheduled sound")
+        public long lastDelayTicks;
+    }
+
+    @Name("hardcorerevival.HeadDrop")
+    @Label("Head Drop")
+    @Description("A dead player's head was stamped and dropped")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class HeadDrop extends Event {
+        @Label("Player")
+        public String player;
+        @Label("Player UUID")
+        public String playerId;
+        @Label("World")
+        public String world;
+        @Label("Token Id")
+        public long tokenId;
+    }
+
+    @Name("hardcorerevival.ReviveCompleted")
+    @Label("Revive Completed")
+    @Description("A ritual finished and its target was revived or marked pending")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ReviveCompleted extends Event {
+        @Label("Target")
+        public String target;
+        @Label("Target UUID")
+        public String targetId;
+        @Label("Altar")
+        public String altar;
+        @Label("Placer")
+        public String placer;
+        @Label("Pending")
+        @Description("True if the target was offline and will be revived on login")
+        public boolean pending;
+    }
+}
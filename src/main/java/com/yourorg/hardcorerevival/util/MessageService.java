@@ -0,0 +1,239 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-renders every entry under messages.* into an Adventure component once,
+ * so sending a message only substitutes its placeholders. Templates are
+ * rebuilt from the current configuration whenever {@link #rebuild()} is
+ * called, which happens on enable and on /hrreload. Messages missing from
+ * config.yml, such as ones added in a later version, fall back to the
+ * bundled defaults.
+ */
+public class MessageService {
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacyAmpersand();
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z]+)}");
+
+    private final HardcoreRevivalPlugin plugin;
+    // Replaced as a whole on rebuild so readers never see a partial set
+    private volatile Map<String, Template> templates = Collections.emptyMap();
+    // Paths already reported as missing, so each is logged once
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Placeholders that may appear in configured messages, written as
+     * {name} in config.yml.
+     */
+    public enum Placeholder {
+        PLAYER("player"),
+        WORLD("world"),
+        CAUSE("cause"),
+        ENTRY("entry"),
+        STATUS("status"),
+        AGE("age"),
+        COUNT("count"),
+        PAGE("page"),
+        PAGES("pages"),
+        DEATHS("deaths"),
+        REVIVES("revives"),
+        STAGE("stage"),
+        STAGES("stages");
+
+        private final String token;
+
+        Placeholder(String token) {
+            this.token = token;
+        }
+
+        public String getToken() {
+            return "{" + token + "}";
+        }
+
+        /**
+         * Looks up a placeholder by the name used inside the braces.
+         *
+         * @param name placeholder name without braces
+         * @return the placeholder, or null if it is unknown
+         */
+        public static Placeholder byName(String name) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.token.equals(name)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A value bound to a placeholder for a single render.
+     */
+    public record Arg(Placeholder placeholder, Component value) {
+    }
+
+    /**
+     * A parsed message. Both the plain and the prefixed component are built
+     * up front, along with the placeholders the message actually uses.
+     */
+    private record Template(Component raw, Component prefixed, Set<Placeholder> placeholders) {
+        Component render(boolean withPrefix, Arg... args) {
+            Component component = withPrefix ? prefixed : raw;
+            for (Arg arg : args) {
+                if (!placeholders.contains(arg.placeholder())) {
+                    continue;
+                }
+                component = component.replaceText(TextReplacementConfig.builder()
+                        .matchLiteral(arg.placeholder().getToken())
+                        .replacement(arg.value())
+                        .build());
+            }
+            return component;
+        }
+    }
+
+    public MessageService(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Binds the {player} placeholder to a player name.
+     *
+     * @param name player name
+     * @return placeholder argument
+     */
+    public static Arg player(String name) {
+        return new Arg(Placeholder.PLAYER, Component.text(name));
+    }
+
+    /**
+     * Binds any placeholder to a plain text value.
+     *
+     * @param placeholder the placeholder to bind
+     * @param value       text to substitute
+     * @return placeholder argument
+     */
+    public static Arg arg(Placeholder placeholder, String value) {
+        return new Arg(placeholder, Component.text(value));
+    }
+
+    /**
+     * Parses all messages.* entries from the current configuration and the
+     * bundled defaults into templates and swaps them in.
+     */
+    public void rebuild() {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("messages");
+        Configuration defaultConfig = plugin.getConfig().getDefaults();
+        ConfigurationSection defaults = defaultConfig == null ? null
+                : defaultConfig.getConfigurationSection("messages");
+        Set<String> paths = new LinkedHashSet<>();
+        if (section != null) {
+            paths.addAll(section.getKeys(true));
+        }
+        if (defaults != null) {
+            paths.addAll(defaults.getKeys(true));
+        }
+        Map<String, Template> parsed = new HashMap<>();
+        Component prefix = LEGACY.deserialize(text(section, defaults, "prefix"));
+        for (String path : paths) {
+            if (path.equals("prefix") || (section != null && section.isConfigurationSection(path))
+                    || (defaults != null && defaults.isConfigurationSection(path))) {
+                continue;
+            }
+            String text = text(section, defaults, path);
+            Component raw = LEGACY.deserialize(text);
+            parsed.put(path, new Template(raw, prefix.append(raw), findPlaceholders(text)));
+        }
+        templates = parsed;
+        missing.clear();
+    }
+
+    private static String text(ConfigurationSection section, ConfigurationSection defaults, String path) {
+        if (section != null && section.contains(path, true)) {
+            return section.getString(path, "");
+        }
+        return defaults == null ? "" : defaults.getString(path, "");
+    }
+
+    /**
+     * Renders a message with the configured prefix. If the path does not
+     * exist an empty component is returned.
+     *
+     * @param path configuration path under the messages section
+     * @param args placeholder values
+     * @return rendered message
+     */
+    public Component get(String path, Arg... args) {
+        Template template = lookup(path);
+        return template == null ? Component.empty() : template.render(true, args);
+    }
+
+    /**
+     * Renders a message without the prefix.
+     *
+     * @param path configuration path under the messages section
+     * @param args placeholder values
+     * @return rendered message
+     */
+    public Component raw(String path, Arg... args) {
+        Template template = lookup(path);
+        return template == null ? Component.empty() : template.render(false, args);
+    }
+
+    private Template lookup(String path) {
+        Template template = templates.get(path);
+        if (template == null && missing.add(path)) {
+            plugin.getLogger().warning("Message messages." + path + " is not in config.yml or the defaults");
+        }
+        return template;
+    }
+
+    /**
+     * Sends a prefixed message to a single audience.
+     *
+     * @param audience recipient
+     * @param path     configuration path under the messages section
+     * @param args     placeholder values
+     */
+    public void send(Audience audience, String path, Arg... args) {
+        audience.sendMessage(get(path, args));
+    }
+
+    /**
+     * Broadcasts a prefixed message to every player and the console. The
+     * component is rendered once and handed to the server audience.
+     *
+     * @param path configuration path under the messages section
+     * @param args placeholder values
+     */
+    public void broadcast(String path, Arg... args) {
+        plugin.getServer().sendMessage(get(path, args));
+    }
+
+    private static Set<Placeholder> findPlaceholders(String text) {
+        Set<Placeholder> found = EnumSet.noneOf(Placeholder.class);
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        while (matcher.find()) {
+            Placeholder placeholder = Placeholder.byName(matcher.group(1));
+            if (placeholder != null) {
+                found.add(placeholder);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,402 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Finds players who are dead but unknown to the {@link DeadPlayerRegistry},
+ * such as those who died before the plugin was installed, by scanning the
+ * main world's playerdata files once on startup. Any player saved in
+ * spectator mode is recorded as dead, except server operators. Records made
+ * this way carry the cause {@link #CAUSE}, so a player holding
+ * hardcorerevival.reconcile.exempt is released from them on join.
+ *
+ * <p>The files are read in parallel on a fork-join pool of their own. Each
+ * file is decompressed and its NBT walked as a stream: reading stops as soon
+ * as playerGameType shows the player is not a spectator, and other tags are
+ * skipped without being decoded. The dead players found are added to the
+ * registry on the main thread. In incremental mode the time of the last
+ * scan is kept in reconcile.properties and files not modified since then
+ * are skipped.</p>
+ */
+public class PlayerDataScanner {
+    /**
+     * Cause stored in the death records the scan creates.
+     */
+    public static final String CAUSE = "RECONCILED";
+    private static final int GAME_TYPE_SPECTATOR = 3;
+    // Files read by one fork-join task before it stops splitting
+    private static final int SPLIT_THRESHOLD = 32;
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000L;
+
+    private static final byte TAG_END = 0;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_STRING = 8;
+    private static final byte TAG_LIST = 9;
+    private static final byte TAG_COMPOUND = 10;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final File stateFile;
+    private volatile boolean cancelled;
+    private ForkJoinPool pool;
+
+    /**
+     * A player saved in spectator mode. Fields missing from the file are
+     * null or 0.
+     */
+    private record Found(UUID player, String name, long lastPlayed, String dimension, double x, double y, double z,
+                         long modified) {
+    }
+
+    /**
+     * Counters shared by the scan tasks.
+     */
+    private static final class Progress {
+        final int total;
+        final AtomicInteger read = new AtomicInteger();
+        final AtomicInteger unchanged = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicLong lastReport = new AtomicLong(System.currentTimeMillis());
+
+        Progress(int total) {
+            this.total = total;
+        }
+    }
+
+    public PlayerDataScanner(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.stateFile = new File(plugin.getDataFolder(), "reconcile.properties");
+    }
+
+    /**
+     * Starts the scan in the background if reconcile.enabled is set. Call on
+     * the main thread once the worlds are loaded.
+     */
+    public void start() {
+        if (!plugin.getConfig().getBoolean("reconcile.enabled", false) || Bukkit.getWorlds().isEmpty()) {
+            return;
+        }
+        World main = Bukkit.getWorlds().get(0);
+        if (plugin.getConfig().getBoolean("reconcile.requireHardcore", true) && !main.isHardcore()) {
+            plugin.getLogger().info("Skipping the playerdata scan because " + main.getName() + " is not hardcore");
+            return;
+        }
+        File directory = new File(main.getWorldFolder(), "playerdata");
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".dat"));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        boolean incremental = plugin.getConfig().getBoolean("reconcile.incremental", true);
+        long since = incremental ? readLastScan() : 0L;
+        long startedAt = System.currentTimeMillis();
+        int parallelism = plugin.getConfig().getInt("reconcile.parallelism", 0);
+        if (parallelism <= 0) {
+            parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        plugin.getLogger().info("Scanning " + files.length + " playerdata files for dead players"
+                + (since > 0 ? " (only those changed since the last scan)" : "") + " on " + parallelism + " threads");
+
+        Progress progress = new Progress(files.length);
+        pool = new ForkJoinPool(parallelism);
+        CompletableFuture<List<Found>> scan = CompletableFuture.supplyAsync(
+                () -> new ScanTask(files, 0, files.length, since, progress).invoke(), pool);
+        scan.whenComplete((found, error) -> pool.shutdown());
+        plugin.getExecutor().thenOnMain(scan, found -> {
+            int added = seed(found);
+            long millis = System.currentTimeMillis() - startedAt;
+            PluginMetrics metrics = plugin.getMetrics();
+            metrics.add("reconcile.filesRead", progress.read.get());
+            metrics.add("reconcile.filesUnchanged", progress.unchanged.get());
+            metrics.add("reconcile.filesFailed", progress.failed.get());
+            metrics.add("reconcile.deadAdded", added);
+            metrics.add("reconcile.millis", millis);
+            plugin.getLogger().info("Playerdata scan finished in " + millis + " ms: read " + progress.read.get()
+                    + " files, skipped " + progress.unchanged.get() + " unchanged, " + progress.failed.get()
+                    + " unreadable; recorded " + added + " dead players");
+            // Files written while the scan ran are newer than this and are read next time
+            plugin.getExecutor().run(PluginExecutor.Resource.DISK, () -> writeLastScan(startedAt));
+        });
+    }
+
+    /**
+     * Stops a running scan on disable. The time of the last complete scan is
+     * kept, so the next scan reads the same files again.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds the players found to the registry, leaving out those already
+     * known, pending a revive, online or operators. Staff watching in
+     * spectator mode are usually operators.
+     *
+     * @return number of players recorded as dead
+     */
+    private int seed(List<Found> found) {
+        DataStore store = plugin.getDataStore();
+        DeadPlayerRegistry deadPlayers = store.getDeadPlayers();
+        String mainWorld = Bukkit.getWorlds().get(0).getName();
+        Set<UUID> operators = new HashSet<>();
+        for (OfflinePlayer operator : Bukkit.getOperators()) {
+            operators.add(operator.getUniqueId());
+        }
+        List<DeadPlayerRegistry.DeathRecord> records = new ArrayList<>();
+        for (Found player : found) {
+            UUID uuid = player.player();
+            if (deadPlayers.isDead(uuid) || store.isPendingRevive(uuid) || Bukkit.getPlayer(uuid) != null
+                    || operators.contains(uuid)) {
+                continue;
+            }
+            String name = player.name() != null ? player.name() : Bukkit.getOfflinePlayer(uuid).getName();
+            records.add(new DeadPlayerRegistry.DeathRecord(uuid, name != null ? name : uuid.toString(),
+                    player.lastPlayed() > 0 ? player.lastPlayed() : player.modified(),
+                    worldName(player.dimension(), mainWorld), player.x(), player.y(), player.z(), CAUSE));
+        }
+        if (!records.isEmpty()) {
+            deadPlayers.markAllDead(records);
+        }
+        return records.size();
+    }
+
+    private static String worldName(String dimension, String fallback) {
+        if (dimension != null) {
+            for (World world : Bukkit.getWorlds()) {
+                if (world.getKey().toString().equals(dimension)) {
+                    return world.getName();
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private long readLastScan() {
+        if (!stateFile.exists()) {
+            return 0L;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(stateFile)) {
+            properties.load(in);
+            return Long.parseLong(properties.getProperty("lastScan", "0"));
+        } catch (IOException | NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private void writeLastScan(long startedAt) {
+        Properties properties = new Properties();
+        properties.setProperty("lastScan", String.valueOf(startedAt));
+        try (OutputStream out = new FileOutputStream(stateFile)) {
+            properties.store(out, "HardcoreRevival playerdata scan");
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save reconcile.properties: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a range of files, splitting it in two until it is small enough.
+     */
+    private final class ScanTask extends RecursiveTask<List<Found>> {
+        private final File[] files;
+        private final int from;
+        private final int to;
+        private final long since;
+        private final Progress progress;
+
+        ScanTask(File[] files, int from, int to, long since, Progress progress) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.since = since;
+            this.progress = progress;
+        }
+
+        @Override
+        protected List<Found> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ScanTask left = new ScanTask(files, from, middle, since, progress);
+                left.fork();
+                List<Found> found = new ScanTask(files, middle, to, since, progress).compute();
+                found.addAll(left.join());
+                return found;
+            }
+            List<Found> found = new ArrayList<>();
+            for (int i = from; i < to && !cancelled; i++) {
+                Found player = scan(files[i]);
+                if (player != null) {
+                    found.add(player);
+                }
+                report();
+            }
+            return found;
+        }
+
+        private Found scan(File file) {
+            String name = file.getName();
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(name.substring(0, name.length() - ".dat".length()));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            long modified = file.lastModified();
+            if (modified < since) {
+                progress.unchanged.incrementAndGet();
+                return null;
+            }
+            try {
+                Found player = read(file, uuid, modified);
+                progress.read.incrementAndGet();
+                return player;
+            } catch (IOException e) {
+                progress.failed.incrementAndGet();
+                plugin.getLogger().warning("Could not read " + name + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        private void report() {
+            long now = System.currentTimeMillis();
+            long last = progress.lastReport.get();
+            if (now - last >= PROGRESS_INTERVAL_MILLIS && progress.lastReport.compareAndSet(last, now)) {
+                int done = progress.read.get() + progress.unchanged.get() + progress.failed.get();
+                plugin.getLogger().info("Scanned " + done + "/" + progress.total + " playerdata files");
+            }
+        }
+    }
+
+    /**
+     * Reads the tags needed from a gzipped player file.
+     *
+     * @return the player, or null if they are not in spectator mode
+     */
+    private static Found read(File file, UUID uuid, long modified) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file), 8192), 8192))) {
+            if (in.readByte() != TAG_COMPOUND) {
+                throw new IOException("root tag is not a compound");
+            }
+            in.skipNBytes(in.readUnsignedShort());
+            int gameType = -1;
+            String name = null;
+            long lastPlayed = 0L;
+            String dimension = null;
+            double[] pos = null;
+            byte type;
+            while ((type = in.readByte()) != TAG_END) {
+                String key = in.readUTF();
+                if (type == TAG_INT && key.equals("playerGameType")) {
+                    gameType = in.readInt();
+                    if (gameType != GAME_TYPE_SPECTATOR) {
+                        // Most players are alive; the rest of the file is not needed
+                        return null;
+                    }
+                } else if (type == TAG_STRING && key.equals("Dimension")) {
+                    dimension = in.readUTF();
+                } else if (type == TAG_LIST && key.equals("Pos")) {
+                    pos = readPosition(in);
+                } else if (type == TAG_COMPOUND && key.equals("bukkit")) {
+                    // Written by the server: lastKnownName and lastPlayed
+                    byte inner;
+                    while ((inner = in.readByte()) != TAG_END) {
+                        String innerKey = in.readUTF();
+                        if (inner == TAG_STRING && innerKey.equals("lastKnownName")) {
+                            name = in.readUTF();
+                        } else if (inner == TAG_LONG && innerKey.equals("lastPlayed")) {
+                            lastPlayed = in.readLong();
+                        } else {
+                            skip(in, inner);
+                        }
+                    }
+                } else {
+                    skip(in, type);
+                }
+            }
+            if (gameType != GAME_TYPE_SPECTATOR) {
+                return null;
+            }
+            if (pos == null) {
+                pos = new double[3];
+            }
+            return new Found(uuid, name, lastPlayed, dimension, pos[0], pos[1], pos[2], modified);
+        }
+    }
+
+    private static double[] readPosition(DataInputStream in) throws IOException {
+        byte elementType = in.readByte();
+        int length = in.readInt();
+        if (elementType != TAG_DOUBLE || length != 3) {
+            skipList(in, elementType, length);
+            return null;
+        }
+        return new double[]{in.readDouble(), in.readDouble(), in.readDouble()};
+    }
+
+    private static void skip(DataInputStream in, byte type) throws IOException {
+        switch (type) {
+            case 1 -> in.skipNBytes(1);
+            case 2 -> in.skipNBytes(2);
+            case 3, 5 -> in.skipNBytes(4);
+            case 4, 6 -> in.skipNBytes(8);
+            case 7 -> in.skipNBytes(in.readInt());
+            case 8 -> in.skipNBytes(in.readUnsignedShort());
+            case 9 -> skipList(in, in.readByte(), in.readInt());
+            case 10 -> {
+                byte inner;
+                while ((inner = in.readByte()) != TAG_END) {
+                    in.skipNBytes(in.readUnsignedShort());
+                    skip(in, inner);
+                }
+            }
+            case 11 -> in.skipNBytes(4L * in.readInt());
+            case 12 -> in.skipNBytes(8L * in.readInt());
+            default -> throw new IOException("unknown tag type " + type);
+        }
+    }
+
+    private static void skipList(DataInputStream in, byte elementType, int length) throws IOException {
+        int size = switch (elementType) {
+            case 1 -> 1;
+            case 2 -> 2;
+            case 3, 5 -> 4;
+            case 4, 6 -> 8;
+            default -> 0;
+        };
+        if (size > 0) {
+            in.skipNBytes((long) size * length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            skip(in, elementType);
+        }
+    }
+}
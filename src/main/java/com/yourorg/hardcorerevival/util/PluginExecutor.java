@@ -0,0 +1,182 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Bukkit;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs the plugin's blocking work on virtual threads. Every task names the
+ * {@link Resource} it uses, and a semaphore per resource bounds how many
+ * tasks touch it at once: saves to disk are serialised, while profile
+ * lookups and admin queries may overlap a little. Long exports and config
+ * reloads have their own resources so they never wait behind saves, or
+ * saves behind them. Results are handed back to the server thread with
+ * {@link #thenOnMain}.
+ *
+ * <p>The time each task spends waiting for its resource is reported by
+ * /hrmetrics as executor.&lt;resource&gt;.waitMicros (total) and
+ * executor.&lt;resource&gt;.waitMicrosMax, next to the number of tasks run.
+ * {@link #shutdown()} waits for queued tasks so pending saves reach disk.</p>
+ */
+public class PluginExecutor {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10L;
+
+    private final HardcoreRevivalPlugin plugin;
+    private final ExecutorService executor;
+    private final Semaphore[] permits;
+    private final Executor mainThread;
+
+    /**
+     * Resources a task may use, each with its own concurrency limit under
+     * executor.* in the configuration.
+     */
+    public enum Resource {
+        DISK("diskConcurrency", 1),
+        LOOKUP("lookupConcurrency", 4),
+        QUERY("queryConcurrency", 2),
+        EXPORT("exportConcurrency", 1),
+        CONFIG("configConcurrency", 1);
+
+        private final String configKey;
+        private final int defaultLimit;
+
+        Resource(String configKey, int defaultLimit) {
+            this.configKey = configKey;
+            this.defaultLimit = defaultLimit;
+        }
+    }
+
+    public PluginExecutor(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("HardcoreRevival-Worker-", 0).factory());
+        Resource[] resources = Resource.values();
+        this.permits = new Semaphore[resources.length];
+        for (Resource resource : resources) {
+            int limit = plugin.getConfig().getInt("executor." + resource.configKey, resource.defaultLimit);
+            permits[resource.ordinal()] = new Semaphore(Math.max(1, limit), true);
+        }
+        this.mainThread = task -> {
+            // The scheduler rejects tasks once the plugin is disabled
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+
+    /**
+     * Runs a task that produces a value on a virtual thread.
+     *
+     * @param resource resource the task uses
+     * @param task     blocking work
+     * @param <T>      result type
+     * @return future completed with the task's result
+     */
+    public <T> CompletableFuture<T> supply(Resource resource, Supplier<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Semaphore semaphore = permits[resource.ordinal()];
+                semaphore.acquireUninterruptibly();
+                try {
+                    recordWait(resource, System.nanoTime() - submitted);
+                    return task.get();
+                } finally {
+                    semaphore.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            // Submitted after shutdown; run it here rather than lose it
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException failure) {
+                return CompletableFuture.failedFuture(failure);
+            }
+        }
+    }
+
+    /**
+     * Runs a task on a virtual thread.
+     *
+     * @param resource resource the task uses
+     * @param task     blocking work
+     * @return future completed once the task has run
+     */
+    public CompletableFuture<Void> run(Resource resource, Runnable task) {
+        return supply(resource, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Passes the result of a future to a callback on the main thread.
+     * Failures are logged instead. The callback is skipped if the plugin is
+     * disabled before the future completes.
+     *
+     * @param future   future to wait for
+     * @param callback receives the result on the main thread
+     * @param <T>      result type
+     * @return future completed on the main thread once the callback has run
+     * or the failure has been logged, for cleanup that must happen either way
+     */
+    public <T> CompletableFuture<Void> thenOnMain(CompletableFuture<T> future, Consumer<T> callback) {
+        return future.handleAsync((result, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                plugin.getLogger().log(Level.SEVERE, "Background task failed", cause);
+                return null;
+            }
+            callback.accept(result);
+            return null;
+        }, mainThread);
+    }
+
+    /**
+     * Retrieves an executor that runs tasks on the main thread, for chaining
+     * futures directly.
+     *
+     * @return main thread executor
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Stops accepting tasks and waits for queued ones to finish. Called on
+     * disable after the last saves have been submitted.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Background tasks did not finish within "
+                        + SHUTDOWN_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void recordWait(Resource resource, long waitNanos) {
+        String prefix = "executor." + resource.name().toLowerCase(Locale.ROOT);
+        long micros = waitNanos / 1000L;
+        PluginMetrics metrics = plugin.getMetrics();
+        metrics.increment(prefix + ".tasks");
+        metrics.add(prefix + ".waitMicros", micros);
+        metrics.max(prefix + ".waitMicrosMax", micros);
+    }
+}
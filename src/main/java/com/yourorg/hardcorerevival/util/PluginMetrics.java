@@ -0,0 +1,59 @@
+package com.yourorg.hardcorerevival.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters describing what the plugin has been doing since it was
+ * enabled. Counters are cheap to update from any thread and are reported by
+ * the /hrmetrics command.
+ */
+public class PluginMetrics {
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongAccumulator> maxima = new ConcurrentHashMap<>();
+
+    /**
+     * Adds one to the named counter.
+     *
+     * @param name counter name
+     */
+    public void increment(String name) {
+        add(name, 1L);
+    }
+
+    /**
+     * Adds an amount to the named counter.
+     *
+     * @param name   counter name
+     * @param amount amount to add
+     */
+    public void add(String name, long amount) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(amount);
+    }
+
+    /**
+     * Raises the named gauge to the given value if it is higher than any
+     * value recorded so far.
+     *
+     * @param name  gauge name
+     * @param value observed value
+     */
+    public void max(String name, long value) {
+        maxima.computeIfAbsent(name, key -> new LongAccumulator(Math::max, 0L)).accumulate(value);
+    }
+
+    /**
+     * Retrieves the current value of every counter and gauge, sorted by name.
+     *
+     * @return counter values by name
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        maxima.forEach((name, accumulator) -> values.put(name, accumulator.get()));
+        return values;
+    }
+}
@@ -3,32 +3,150 @@ package com.yourorg.hardcorerevival.util;
 import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.RecipeChoice;
 import org.bukkit.inventory.ShapelessRecipe;
 import org.bukkit.inventory.meta.PotionMeta;
 import org.bukkit.inventory.meta.SkullMeta;
-import org.bukkit.potion.PotionData;
 import org.bukkit.potion.PotionType;
 import org.bukkit.ChatColor;
+import org.bukkit.Keyed;
+import org.bukkit.configuration.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Registers crafting recipes for HardcoreRevival. Currently only one shapeless
- * recipe is provided: combining a skeleton skull and an Instant Health II
- * potion to create a blank revival head. The resulting head has no owner
- * profile and uses a configurable display name.
+ * Registers crafting recipes for HardcoreRevival. Every recipe produces a
+ * blank revival head: a head with no owner profile and a configurable
+ * display name. The ingredients of each recipe are listed under
+ * recipe.variants; by default a skeleton skull and an Instant Health II
+ * potion.
+ *
+ * <p>Registration is change-aware. A recipe identical to the one already
+ * registered under its key is left alone, and all changes are pushed to
+ * clients in a single recipe update. If config.yml has no recipe.variants,
+ * as on installs from before variants existed, the default variants are
+ * used.</p>
  */
 public final class RecipeRegistrar {
+    private static final String POTION_PREFIX = "potion:";
+    private static final String DEFAULT_VARIANT = "blank_head";
+    private static final List<String> DEFAULT_INGREDIENTS = List.of("SKELETON_SKULL", "potion:STRONG_HEALING");
+
     private RecipeRegistrar() {
     }
 
     /**
-     * Registers the blank head crafting recipe. This should be called once
-     * during plugin enable. If the recipe already exists from a previous
-     * enable, it is replaced. The output name is read from config.recipe.outputName.
+     * Registers every configured blank head recipe. Called on enable and
+     * after a config reload. Unchanged recipes are skipped, variants no
+     * longer configured are removed, and clients are resynced once if
+     * anything changed.
      *
      * @param plugin plugin instance
      */
-    public static void registerBlankHeadRecipe(HardcoreRevivalPlugin plugin) {
+    public static void registerRecipes(HardcoreRevivalPlugin plugin) {
+        Server server = plugin.getServer();
+        List<ShapelessRecipe> recipes = buildRecipes(plugin);
+        Set<NamespacedKey> keys = new HashSet<>();
+        boolean changed = false;
+        for (ShapelessRecipe recipe : recipes) {
+            keys.add(recipe.getKey());
+            Recipe existing = server.getRecipe(recipe.getKey());
+            if (existing instanceof ShapelessRecipe current && isSameRecipe(current, recipe)) {
+                continue;
+            }
+            // Defer the client resync until every recipe is in place
+            server.removeRecipe(recipe.getKey(), false);
+            server.addRecipe(recipe, false);
+            changed = true;
+        }
+        // Remove recipes of variants no longer configured, including ones
+        // registered before a restart
+        String namespace = plugin.getName().toLowerCase(Locale.ROOT);
+        List<NamespacedKey> stale = new ArrayList<>();
+        for (Iterator<Recipe> it = server.recipeIterator(); it.hasNext(); ) {
+            if (it.next() instanceof Keyed keyed && keyed.getKey().getNamespace().equals(namespace)
+                    && !keys.contains(keyed.getKey())) {
+                stale.add(keyed.getKey());
+            }
+        }
+        for (NamespacedKey key : stale) {
+            server.removeRecipe(key, false);
+            changed = true;
+        }
+        if (changed) {
+            server.updateRecipes();
+        }
+    }
+
+    /**
+     * Reads the configured recipe variants. When the file does not set
+     * recipe.variants the variants in the bundled defaults are used, or the
+     * built-in blank_head recipe if there are none.
+     *
+     * @param config configuration to read
+     * @return ingredients by variant id, in config order
+     */
+    public static Map<String, List<String>> variants(Configuration config) {
+        ConfigurationSection section = config.isSet("recipe.variants")
+                ? config.getConfigurationSection("recipe.variants") : null;
+        if (section == null && config.getDefaults() != null) {
+            section = config.getDefaults().getConfigurationSection("recipe.variants");
+        }
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        if (section == null || section.getKeys(false).isEmpty()) {
+            variants.put(DEFAULT_VARIANT, DEFAULT_INGREDIENTS);
+            return variants;
+        }
+        for (String id : section.getKeys(false)) {
+            variants.put(id, section.getStringList(id));
+        }
+        return variants;
+    }
+
+    private static List<ShapelessRecipe> buildRecipes(HardcoreRevivalPlugin plugin) {
+        List<ShapelessRecipe> recipes = new ArrayList<>();
+        ItemStack output = createBlankHead(plugin);
+        for (Map.Entry<String, List<String>> variant : variants(plugin.getConfig()).entrySet()) {
+            String id = variant.getKey();
+            List<String> ingredients = variant.getValue();
+            if (ingredients.isEmpty()) {
+                plugin.getLogger().warning("Recipe variant " + id + " has no ingredients; skipping");
+                continue;
+            }
+            ShapelessRecipe recipe = new ShapelessRecipe(new NamespacedKey(plugin, id.toLowerCase(Locale.ROOT)), output);
+            boolean valid = true;
+            for (String ingredient : ingredients) {
+                RecipeChoice choice = parseIngredient(ingredient);
+                if (choice == null) {
+                    plugin.getLogger().warning("Unknown ingredient '" + ingredient + "' in recipe variant " + id);
+                    valid = false;
+                    break;
+                }
+                recipe.addIngredient(choice);
+            }
+            if (valid) {
+                recipes.add(recipe);
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Creates the blank head produced by every recipe. The output name is
+     * read from config.recipe.outputName.
+     */
+    private static ItemStack createBlankHead(HardcoreRevivalPlugin plugin) {
         // Create output head with no owning profile
         ItemStack output = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta skullMeta = (SkullMeta) output.getItemMeta();
@@ -38,23 +156,46 @@ public final class RecipeRegistrar {
         skullMeta.setLore(java.util.Arrays.asList(ChatColor.GRAY + "Rename in an anvil to the player's name"));
         // Ensure the blank head has no owner assigned so it functions as a generic head
         skullMeta.setOwningPlayer(null);
+        // Tag as blank so renaming it in an anvil stamps a revival token
+        plugin.getTokens().markBlank(skullMeta);
         output.setItemMeta(skullMeta);
+        return output;
+    }
+
+    /**
+     * Parses a recipe ingredient. Plain names are materials; potion:TYPE is
+     * a potion with exactly that base type, e.g. potion:STRONG_HEALING for
+     * Instant Health II.
+     *
+     * @param ingredient ingredient as written in the config
+     * @return the recipe choice, or null if the ingredient is unknown
+     */
+    public static RecipeChoice parseIngredient(String ingredient) {
+        if (ingredient.regionMatches(true, 0, POTION_PREFIX, 0, POTION_PREFIX.length())) {
+            PotionType type;
+            try {
+                type = PotionType.valueOf(ingredient.substring(POTION_PREFIX.length()).toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            ItemStack potion = new ItemStack(Material.POTION);
+            PotionMeta potionMeta = (PotionMeta) potion.getItemMeta();
+            potionMeta.setBasePotionType(type);
+            potion.setItemMeta(potionMeta);
+            return new RecipeChoice.ExactChoice(potion);
+        }
+        Material material = Material.matchMaterial(ingredient);
+        if (material == null || !material.isItem() || material.isAir()) {
+            return null;
+        }
+        return new RecipeChoice.MaterialChoice(material);
+    }
 
-        // Define an exact choice for the Instant Health II potion
-        ItemStack potion = new ItemStack(Material.POTION);
-        PotionMeta potionMeta = (PotionMeta) potion.getItemMeta();
-        // Base potion data: INSTANT_HEAL, upgraded = true (tier II)
-        potionMeta.setBasePotionData(new PotionData(PotionType.INSTANT_HEAL, false, true));
-        potion.setItemMeta(potionMeta);
-
-        ShapelessRecipe recipe = new ShapelessRecipe(new NamespacedKey(plugin, "blank_head"), output);
-        // Skeleton skull
-        recipe.addIngredient(Material.SKELETON_SKULL);
-        // Potion with exact meta
-        recipe.addIngredient(new org.bukkit.inventory.RecipeChoice.ExactChoice(potion));
-
-        // Remove existing recipe with same key if present
-        plugin.getServer().removeRecipe(recipe.getKey());
-        plugin.getServer().addRecipe(recipe);
+    private static boolean isSameRecipe(ShapelessRecipe current, ShapelessRecipe wanted) {
+        ItemStack currentResult = current.getResult();
+        ItemStack wantedResult = wanted.getResult();
+        return currentResult.isSimilar(wantedResult)
+                && currentResult.getAmount() == wantedResult.getAmount()
+                && current.getChoiceList().equals(wanted.getChoiceList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Stamps and reads revival tokens stored in a head's persistent data
+ * container. A token binds a head to the UUID of the player it revives
+ * together with a random token id and the time it was issued, so the altar
+ * can identify the target with a single PDC read instead of resolving a
+ * profile or a display name. Issued token ids are tracked in the
+ * {@link DataStore} so reused or forged tokens can be rejected.
+ */
+public class RevivalTokens {
+    private final HardcoreRevivalPlugin plugin;
+    private final SecureRandom random = new SecureRandom();
+    private final NamespacedKey targetKey;
+    private final NamespacedKey targetNameKey;
+    private final NamespacedKey tokenIdKey;
+    private final NamespacedKey issuedKey;
+    private final NamespacedKey blankKey;
+
+    /**
+     * A token read from a head. The target name is captured when the token
+     * is issued so broadcasts never need a profile lookup.
+     */
+    public record Token(UUID target, String targetName, long id, long issuedAt) {
+    }
+
+    public RevivalTokens(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+        this.targetKey = new NamespacedKey(plugin, "token_target");
+        this.targetNameKey = new NamespacedKey(plugin, "token_target_name");
+        this.tokenIdKey = new NamespacedKey(plugin, "token_id");
+        this.issuedKey = new NamespacedKey(plugin, "token_issued");
+        this.blankKey = new NamespacedKey(plugin, "blank_head");
+    }
+
+    /**
+     * Stamps a new token for the given target onto the item meta. The token
+     * is not yet recorded as issued; call {@link #register(Token)} once the
+     * item actually reaches a player.
+     *
+     * @param meta       meta of the head to stamp
+     * @param target     UUID of the player the head revives
+     * @param targetName name of the player at issue time
+     * @return the stamped token
+     */
+    public Token stamp(ItemMeta meta, UUID target, String targetName) {
+        long id;
+        do {
+            id = random.nextLong();
+        } while (id == 0L);
+        Token token = new Token(target, targetName, id, System.currentTimeMillis());
+        PersistentDataContainer pdc = meta.getPersistentDataContainer();
+        pdc.set(targetKey, PersistentDataType.LONG_ARRAY,
+                new long[]{target.getMostSignificantBits(), target.getLeastSignificantBits()});
+        pdc.set(targetNameKey, PersistentDataType.STRING, targetName);
+        pdc.set(tokenIdKey, PersistentDataType.LONG, token.id());
+        pdc.set(issuedKey, PersistentDataType.LONG, token.issuedAt());
+        pdc.remove(blankKey);
+        return token;
+    }
+
+    /**
+     * Reads the token stamped on a head, if any.
+     *
+     * @param item the item to inspect
+     * @return the token, or null if the item carries none
+     */
+    public Token read(ItemStack item) {
+        if (item == null || item.getType() != Material.PLAYER_HEAD || !item.hasItemMeta()) {
+            return null;
+        }
+        PersistentDataContainer pdc = item.getItemMeta().getPersistentDataContainer();
+        long[] target = pdc.get(targetKey, PersistentDataType.LONG_ARRAY);
+        Long id = pdc.get(tokenIdKey, PersistentDataType.LONG);
+        if (target == null || target.length != 2 || id == null) {
+            return null;
+        }
+        String name = pdc.getOrDefault(targetNameKey, PersistentDataType.STRING, "");
+        long issued = pdc.getOrDefault(issuedKey, PersistentDataType.LONG, 0L);
+        return new Token(new UUID(target[0], target[1]), name, id, issued);
+    }
+
+    /**
+     * Records a stamped token as issued so the altar will accept it.
+     *
+     * @param token the token to record
+     */
+    public void register(Token token) {
+        plugin.getDataStore().addIssuedToken(token.id(), token.target(), token.issuedAt());
+    }
+
+    /**
+     * Checks a token against the issued-token index. Tokens that were never
+     * issued, were already redeemed, point at a different target than the one
+     * they were issued for or are older than tokens.maxAgeDays are rejected.
+     *
+     * @param token the token to verify
+     * @return true if the token may be used for a revival
+     */
+    public boolean isValid(Token token) {
+        if (!plugin.getDataStore().isTokenIssued(token.id(), token.target())) {
+            return false;
+        }
+        long maxAgeDays = plugin.getConfig().getLong("tokens.maxAgeDays", 90L);
+        if (maxAgeDays > 0) {
+            long ageMillis = System.currentTimeMillis() - token.issuedAt();
+            return ageMillis <= maxAgeDays * 86_400_000L;
+        }
+        return true;
+    }
+
+    /**
+     * Marks a token as used. Subsequent attempts with the same token fail
+     * {@link #isValid(Token)}.
+     *
+     * @param token the redeemed token
+     */
+    public void redeem(Token token) {
+        plugin.getDataStore().removeIssuedToken(token.id());
+    }
+
+    /**
+     * Tags item meta as a blank revival head that may be renamed in an anvil.
+     *
+     * @param meta meta to tag
+     */
+    public void markBlank(ItemMeta meta) {
+        meta.getPersistentDataContainer().set(blankKey, PersistentDataType.BYTE, (byte) 1);
+    }
+
+    /**
+     * Checks whether the item is an unstamped blank revival head.
+     *
+     * @param item the item to inspect
+     * @return true if the item is a blank head
+     */
+    public boolean isBlank(ItemStack item) {
+        if (item == null || item.getType() != Material.PLAYER_HEAD || !item.hasItemMeta()) {
+            return false;
+        }
+        return item.getItemMeta().getPersistentDataContainer().has(blankKey, PersistentDataType.BYTE);
+    }
+}
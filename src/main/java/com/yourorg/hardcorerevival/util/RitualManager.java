@@ -0,0 +1,418 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import com.yourorg.hardcorerevival.listeners.JoinListener;
+import com.yourorg.hardcorerevival.util.MessageService.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Channels revival rituals. Once a head is accepted by the altar, the
+ * revive completes after ritual.durationSeconds, split into ritual.stages
+ * stages with an effect at each one. A ritual is cancelled, and the head
+ * handed back to the placer, if the altar is broken, its chests are emptied
+ * or the placer moves further than ritual.maxDistance away. A head placed in
+ * creative mode was never taken from the placer and is not handed back.
+ *
+ * <p>All active rituals are held in parallel arrays and advanced by a single
+ * repeating task, which only runs while at least one ritual is active.
+ * Blocks and chests are not re-validated every tick: {@link #markDirty}
+ * flags the rituals whose altar footprint changed, and only those are
+ * checked on the next tick.</p>
+ */
+public class RitualManager {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final HardcoreRevivalPlugin plugin;
+    private BukkitTask ticker;
+    private int size;
+    private UUID[] placers = new UUID[INITIAL_CAPACITY];
+    private UUID[] targets = new UUID[INITIAL_CAPACITY];
+    private String[] targetNames = new String[INITIAL_CAPACITY];
+    private String[] altarKeys = new String[INITIAL_CAPACITY];
+    private Block[] heads = new Block[INITIAL_CAPACITY];
+    // Null when the head was not taken from the placer's inventory
+    private ItemStack[] headItems = new ItemStack[INITIAL_CAPACITY];
+    private RevivalTokens.Token[] tokens = new RevivalTokens.Token[INITIAL_CAPACITY];
+    private int[] ticks = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private int[] stageCounts = new int[INITIAL_CAPACITY];
+    private int[] stagesReached = new int[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    private long[] handleMicros = new long[INITIAL_CAPACITY];
+
+    public RitualManager(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a ritual for a head the altar has accepted. The ritual length
+     * and stage count are fixed from the configuration at this point.
+     *
+     * @param placer       player who placed the head
+     * @param head         the placed head block
+     * @param headItem     the head item, returned if the ritual is cancelled
+     *                     and the placement consumed it
+     * @param token        revival token on the head, or null for a legacy head
+     * @param target       UUID of the player to revive
+     * @param targetName   name of the player to revive
+     * @param altarKey     serialised altar location
+     * @param handleMicros time spent handling the placement
+     */
+    public void begin(Player placer, Block head, ItemStack headItem, RevivalTokens.Token token, UUID target,
+                      String targetName, String altarKey, long handleMicros) {
+        if (size == placers.length) {
+            grow();
+        }
+        int i = size++;
+        placers[i] = placer.getUniqueId();
+        targets[i] = target;
+        targetNames[i] = targetName;
+        altarKeys[i] = altarKey;
+        heads[i] = head;
+        if (placer.getGameMode() == GameMode.CREATIVE) {
+            headItems[i] = null;
+        } else {
+            headItems[i] = headItem.clone();
+            headItems[i].setAmount(1);
+        }
+        tokens[i] = token;
+        ticks[i] = 0;
+        durations[i] = Math.max(1, (int) (plugin.getConfig().getDouble("ritual.durationSeconds", 10.0) * 20.0));
+        stageCounts[i] = Math.max(1, plugin.getConfig().getInt("ritual.stages", 4));
+        stagesReached[i] = 0;
+        dirty[i] = false;
+        this.handleMicros[i] = handleMicros;
+        if (durations[i] > 1) {
+            plugin.getMessages().send(placer, "ritual.started", MessageService.player(targetName));
+        }
+        if (ticker == null) {
+            ticker = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Checks whether a ritual is already channelling to revive a player.
+     *
+     * @param target UUID of the player
+     * @return true if a ritual for the player is active
+     */
+    public boolean isChannelling(UUID target) {
+        for (int i = 0; i < size; i++) {
+            if (targets[i].equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a block is the head of an active ritual.
+     *
+     * @param block block to check
+     * @return true if the block is a ritual head
+     */
+    public boolean isRitualHead(Block block) {
+        for (int i = 0; i < size; i++) {
+            if (heads[i].equals(block)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any ritual is active, letting callers skip work on
+     * busy events.
+     *
+     * @return true if no ritual is active
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Flags every ritual whose altar includes the given block, so its altar
+     * is validated again on the next tick. Uses the same footprint as the
+     * {@link ValidationCache}.
+     *
+     * @param location location of the changed block
+     */
+    public void markDirty(Location location) {
+        if (size == 0 || location == null || location.getWorld() == null) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            Block head = heads[i];
+            // The altar centre sits two blocks below the head
+            int dy = location.getBlockY() - (head.getY() - 2);
+            if (head.getWorld().equals(location.getWorld()) && dy >= 0 && dy <= 1
+                    && Math.abs(location.getBlockX() - head.getX()) <= 1
+                    && Math.abs(location.getBlockZ() - head.getZ()) <= 1) {
+                dirty[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Cancels every active ritual and returns the heads. Called on disable.
+     */
+    public void cancelAll() {
+        for (int i = size - 1; i >= 0; i--) {
+            cancel(i, null);
+        }
+    }
+
+    /**
+     * Advances every active ritual by one tick. Iterates backwards so a
+     * finished ritual can be replaced by the last one in place.
+     */
+    private void tick() {
+        double maxDistance = plugin.getConfig().getDouble("ritual.maxDistance", 8.0);
+        double maxDistanceSquared = maxDistance * maxDistance;
+        for (int i = size - 1; i >= 0; i--) {
+            Block head = heads[i];
+            if (!isHead(head.getType())) {
+                cancel(i, "ritualBroken");
+                continue;
+            }
+            Player placer = Bukkit.getPlayer(placers[i]);
+            if (placer == null || !placer.getWorld().equals(head.getWorld())
+                    || placer.getLocation().distanceSquared(head.getLocation().add(0.5, 0.5, 0.5))
+                    > maxDistanceSquared) {
+                cancel(i, "ritualLeft");
+                continue;
+            }
+            if (dirty[i]) {
+                dirty[i] = false;
+                AltarValidator.ValidationResult result = AltarValidator.validate(head.getRelative(0, -1, 0), plugin);
+                if (!result.valid) {
+                    cancel(i, cancelKey(result.errorKey));
+                    continue;
+                }
+            }
+            ticks[i]++;
+            // Stage k of n plays once k/n of the duration has passed, the last one as the ritual completes
+            int stage = (int) ((long) ticks[i] * stageCounts[i] / durations[i]);
+            if (stage > stagesReached[i] && durations[i] > 1) {
+                stagesReached[i] = stage;
+                playStage(i, placer, stage);
+            }
+            if (ticks[i] >= durations[i]) {
+                complete(i, placer);
+            }
+        }
+        if (size == 0 && ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+    }
+
+    private void playStage(int i, Player placer, int stage) {
+        Location location = heads[i].getLocation().add(0.5, 0.5, 0.5);
+        float progress = (float) stage / stageCounts[i];
+        try {
+            Sound sound = Sound.valueOf(plugin.getConfig().getString("ritual.stageSound", "BLOCK_RESPAWN_ANCHOR_CHARGE"));
+            location.getWorld().playSound(location, sound, 1.0f, 0.5f + progress);
+        } catch (IllegalArgumentException ignored) {
+            // Validated on reload; an unknown name only skips the sound
+        }
+        try {
+            Particle particle = Particle.valueOf(plugin.getConfig().getString("ritual.stageParticle", "SOUL_FIRE_FLAME"));
+            int count = plugin.getConfig().getInt("ritual.stageParticleCount", 20);
+            location.getWorld().spawnParticle(particle, location, count, 0.6, 0.6, 0.6, 0.02);
+        } catch (IllegalArgumentException ignored) {
+            // Validated on reload; an unknown name only skips the particles
+        }
+        placer.sendActionBar(plugin.getMessages().raw("ritual.stage",
+                MessageService.player(targetNames[i]),
+                MessageService.arg(Placeholder.STAGE, String.valueOf(stage)),
+                MessageService.arg(Placeholder.STAGES, String.valueOf(stageCounts[i]))));
+    }
+
+    /**
+     * Completes a ritual: re-checks the altar and the target, consumes the
+     * offerings and the token, plays the revival effects and revives the
+     * target, or marks them pending if they are offline.
+     */
+    private void complete(int i, Player placer) {
+        Block head = heads[i];
+        UUID targetUUID = targets[i];
+        String targetName = targetNames[i];
+        String altarKey = altarKeys[i];
+        RevivalTokens.Token token = tokens[i];
+        long micros = handleMicros[i];
+        JfrEvents.ReviveCompleted event = new JfrEvents.ReviveCompleted();
+        event.begin();
+
+        // The altar and the target may have changed while channelling
+        AltarValidator.ValidationResult result = AltarValidator.validate(head.getRelative(0, -1, 0), plugin);
+        if (!result.valid) {
+            cancel(i, cancelKey(result.errorKey));
+            return;
+        }
+        DataStore store = plugin.getDataStore();
+        if (store.isPendingRevive(targetUUID) || !store.getDeadPlayers().isDead(targetUUID)) {
+            cancel(i, "playerNotDead");
+            return;
+        }
+        if (token != null && !plugin.getTokens().isValid(token)) {
+            cancel(i, "tokenInvalid");
+            return;
+        }
+        Player targetPlayer = Bukkit.getPlayer(targetUUID);
+        if (targetPlayer == null && !plugin.getConfig().getBoolean("settings.enableOfflineRevive", true)) {
+            cancel(i, "playerNotDead");
+            return;
+        }
+        remove(i);
+
+        // Consume chest items if enabled
+        if (plugin.getConfig().getBoolean("settings.consumeItems", true)) {
+            AltarValidator.consumeChestItems(result.descriptor.getChestInventories());
+        }
+        // Redeem the token so the same head cannot be used again
+        if (token != null) {
+            plugin.getTokens().redeem(token);
+        }
+        head.setType(Material.AIR);
+
+        // Spawn effects
+        Location centre = result.descriptor.getCentre();
+        EffectsUtil.spawnParticles(plugin, centre.clone().add(0.5, 1.5, 0.5));
+        EffectsUtil.playSounds(plugin, centre.clone().add(0.5, 1.5, 0.5));
+        EffectsUtil.spawnLightning(plugin, centre.clone().add(0.5, 0.0, 0.5));
+
+        // Set cooldown timestamp
+        if (plugin.getConfig().getLong("settings.cooldownSeconds", 0L) > 0) {
+            store.setCooldown(altarKey, System.currentTimeMillis());
+        }
+
+        // Process revival
+        if (targetPlayer != null) {
+            // Teleport just above the altar to avoid suffocation
+            targetPlayer.teleport(centre.clone().add(0.5, 1.1, 0.5));
+            store.getDeadPlayers().remove(targetUUID);
+            JoinListener.revivePlayer(targetPlayer);
+        } else {
+            // Offline player; mark pending
+            store.addPendingRevive(targetUUID);
+        }
+
+        // Broadcast success
+        plugin.getMessages().broadcast("success.revive", MessageService.player(targetName));
+        plugin.getHistory().recordRevive(targetUUID, targetName, altarKey, placer.getName(),
+                System.currentTimeMillis());
+        plugin.getAuditLog().success(placer.getName(), placer.getUniqueId(), targetName, altarKey, micros);
+        if (event.shouldCommit()) {
+            event.target = targetName;
+            event.targetId = targetUUID.toString();
+            event.altar = altarKey;
+            event.placer = placer.getName();
+            event.pending = targetPlayer == null;
+            event.commit();
+        }
+    }
+
+    /**
+     * Cancels a ritual, removes its head from the altar and hands it back to
+     * the placer, or drops it at the altar if the placer is offline. Nothing
+     * is handed back for a head placed in creative mode.
+     *
+     * @param errorKey message key under messages.errors, or null to cancel
+     *                 silently
+     */
+    private void cancel(int i, String errorKey) {
+        Block head = heads[i];
+        ItemStack item = headItems[i];
+        UUID placerId = placers[i];
+        String targetName = targetNames[i];
+        String altarKey = altarKeys[i];
+        long micros = handleMicros[i];
+        remove(i);
+        if (isHead(head.getType())) {
+            head.setType(Material.AIR);
+        }
+        Player placer = Bukkit.getPlayer(placerId);
+        if (item != null && placer != null) {
+            placer.getInventory().addItem(item).values().forEach(leftover ->
+                    placer.getWorld().dropItemNaturally(placer.getLocation(), leftover));
+        } else if (item != null) {
+            head.getWorld().dropItemNaturally(head.getLocation().add(0.5, 0.5, 0.5), item);
+        }
+        if (errorKey == null) {
+            return;
+        }
+        if (placer != null) {
+            plugin.getMessages().send(placer, "errors." + errorKey);
+            plugin.getAuditLog().failure(placer.getName(), placerId, targetName, altarKey, errorKey, micros);
+        } else {
+            plugin.getAuditLog().failure(placerId.toString(), placerId, targetName, altarKey, errorKey, micros);
+        }
+    }
+
+    /**
+     * Replaces ritual i with the last one and shrinks the arrays' used
+     * length by one.
+     */
+    private void remove(int i) {
+        int last = --size;
+        placers[i] = placers[last];
+        targets[i] = targets[last];
+        targetNames[i] = targetNames[last];
+        altarKeys[i] = altarKeys[last];
+        heads[i] = heads[last];
+        headItems[i] = headItems[last];
+        tokens[i] = tokens[last];
+        ticks[i] = ticks[last];
+        durations[i] = durations[last];
+        stageCounts[i] = stageCounts[last];
+        stagesReached[i] = stagesReached[last];
+        dirty[i] = dirty[last];
+        handleMicros[i] = handleMicros[last];
+        // Release references held by the vacated slot
+        placers[last] = null;
+        targets[last] = null;
+        targetNames[last] = null;
+        altarKeys[last] = null;
+        heads[last] = null;
+        headItems[last] = null;
+        tokens[last] = null;
+    }
+
+    private void grow() {
+        int capacity = placers.length * 2;
+        placers = Arrays.copyOf(placers, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        targetNames = Arrays.copyOf(targetNames, capacity);
+        altarKeys = Arrays.copyOf(altarKeys, capacity);
+        heads = Arrays.copyOf(heads, capacity);
+        headItems = Arrays.copyOf(headItems, capacity);
+        tokens = Arrays.copyOf(tokens, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        stageCounts = Arrays.copyOf(stageCounts, capacity);
+        stagesReached = Arrays.copyOf(stagesReached, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        handleMicros = Arrays.copyOf(handleMicros, capacity);
+    }
+
+    private static String cancelKey(String validationError) {
+        return "chestMissingItems".equals(validationError) ? "ritualEmptied" : "ritualBroken";
+    }
+
+    private static boolean isHead(Material type) {
+        return type == Material.PLAYER_HEAD || type == Material.PLAYER_WALL_HEAD;
+    }
+}
@@ -0,0 +1,354 @@
+package com.yourorg.hardcorerevival.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Set of UUIDs stored as pairs of longs in two parallel arrays, using open
+ * addressing with linear probing. There is no per-entry object: an entry
+ * costs 16 bytes per slot, and the table is kept at most half full.
+ *
+ * <p>For 1,000,000 UUIDs a {@code HashSet<UUID>} needs roughly 66 MB with
+ * compressed oops: a 32-byte UUID and a 32-byte map node per entry plus an
+ * 8 MB bucket table. This set needs a 2,097,152-slot table, i.e. 32 MB,
+ * and the UUIDs themselves are only created on request.</p>
+ *
+ * <p>Iteration does not allocate: walk the occupied slots with
+ * {@link #nextSlot(int)} and read them with {@link #msbAt(int)} and
+ * {@link #lsbAt(int)}, or use {@link #forEach(UuidConsumer)}. The persisted
+ * form is a count followed by 16 bytes per entry. Not thread-safe.</p>
+ */
+public final class UuidSet {
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // Slot (0, 0) marks an empty slot; the nil UUID is tracked separately
+    private long[] msbs;
+    private long[] lsbs;
+    private int mask;
+    private int size;
+    private boolean containsNil;
+
+    /**
+     * Receives the two halves of each UUID during iteration.
+     */
+    @FunctionalInterface
+    public interface UuidConsumer {
+        void accept(long msb, long lsb);
+    }
+
+    public UuidSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates a set sized to hold the given number of entries without
+     * resizing.
+     *
+     * @param expected expected number of entries
+     */
+    public UuidSet(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    private UuidSet(UuidSet source) {
+        this.msbs = source.msbs.clone();
+        this.lsbs = source.lsbs.clone();
+        this.mask = source.mask;
+        this.size = source.size;
+        this.containsNil = source.containsNil;
+    }
+
+    /**
+     * Adds a UUID.
+     *
+     * @param uuid the UUID
+     * @return true if it was not already present
+     */
+    public boolean add(UUID uuid) {
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Adds a UUID given as its two halves.
+     *
+     * @param msb most significant bits
+     * @param lsb least significant bits
+     * @return true if it was not already present
+     */
+    public boolean add(long msb, long lsb) {
+        if (msb == 0L && lsb == 0L) {
+            if (containsNil) {
+                return false;
+            }
+            containsNil = true;
+            size++;
+            return true;
+        }
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            return false;
+        }
+        slot = ~slot;
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        size++;
+        // Keep the load factor at or below one half
+        if (size * 2L > msbs.length) {
+            if (msbs.length == MAX_CAPACITY) {
+                throw new IllegalStateException("set is full at " + size + " entries");
+            }
+            allocate(msbs.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a UUID is present.
+     *
+     * @param uuid the UUID
+     * @return true if present
+     */
+    public boolean contains(UUID uuid) {
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Checks whether a UUID given as its two halves is present.
+     *
+     * @param msb most significant bits
+     * @param lsb least significant bits
+     * @return true if present
+     */
+    public boolean contains(long msb, long lsb) {
+        if (msb == 0L && lsb == 0L) {
+            return containsNil;
+        }
+        return find(msb, lsb) >= 0;
+    }
+
+    /**
+     * Removes a UUID.
+     *
+     * @param uuid the UUID
+     * @return true if it was present
+     */
+    public boolean remove(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (msb == 0L && lsb == 0L) {
+            if (!containsNil) {
+                return false;
+            }
+            containsNil = false;
+            size--;
+            return true;
+        }
+        int slot = find(msb, lsb);
+        if (slot < 0) {
+            return false;
+        }
+        deleteSlot(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Retrieves the number of UUIDs in the set.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every UUID and shrinks the table back to its minimum size.
+     */
+    public void clear() {
+        msbs = null;
+        lsbs = null;
+        allocate(MIN_CAPACITY);
+        size = 0;
+        containsNil = false;
+    }
+
+    /**
+     * Creates an independent copy of the set. Copying is two array clones,
+     * so it is cheap enough to hand a snapshot to another thread.
+     *
+     * @return copy of the set
+     */
+    public UuidSet copy() {
+        return new UuidSet(this);
+    }
+
+    /**
+     * Finds the next occupied slot at or after the given one. Start at 0 and
+     * pass the returned slot plus one to continue. The nil UUID is not
+     * stored in a slot; check {@link #contains(long, long)} for it.
+     *
+     * @param from first slot to examine
+     * @return the slot index, or -1 if there are no more
+     */
+    public int nextSlot(int from) {
+        for (int i = from; i < msbs.length; i++) {
+            if (msbs[i] != 0L || lsbs[i] != 0L) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long msbAt(int slot) {
+        return msbs[slot];
+    }
+
+    public long lsbAt(int slot) {
+        return lsbs[slot];
+    }
+
+    /**
+     * Passes every UUID to the consumer as two longs.
+     *
+     * @param consumer receives each entry
+     */
+    public void forEach(UuidConsumer consumer) {
+        if (containsNil) {
+            consumer.accept(0L, 0L);
+        }
+        for (int i = 0; i < msbs.length; i++) {
+            if (msbs[i] != 0L || lsbs[i] != 0L) {
+                consumer.accept(msbs[i], lsbs[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the set as an entry count followed by 16 bytes per entry.
+     *
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        if (containsNil) {
+            out.writeLong(0L);
+            out.writeLong(0L);
+        }
+        for (int i = 0; i < msbs.length; i++) {
+            if (msbs[i] != 0L || lsbs[i] != 0L) {
+                out.writeLong(msbs[i]);
+                out.writeLong(lsbs[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a set written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in     source
+     * @param length length in bytes of the persisted form, used to reject a
+     *               corrupt count before allocating for it
+     * @return the set
+     * @throws IOException if reading fails or the data is truncated or corrupt
+     */
+    public static UuidSet readFrom(DataInput in, long length) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > (length - 4) / 16 || count > MAX_CAPACITY / 2) {
+            throw new IOException("entry count " + count + " does not fit in " + length + " bytes");
+        }
+        UuidSet set = new UuidSet(count);
+        for (int i = 0; i < count; i++) {
+            set.add(in.readLong(), in.readLong());
+        }
+        return set;
+    }
+
+    /**
+     * Locates a non-nil UUID.
+     *
+     * @return its slot, or the bitwise complement of the empty slot where it
+     * would be inserted
+     */
+    private int find(long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        while (true) {
+            long m = msbs[slot];
+            long l = lsbs[slot];
+            if (m == 0L && l == 0L) {
+                return ~slot;
+            }
+            if (m == msb && l == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties a slot, shifting later entries of the same probe run back so
+     * lookups never stop early. This avoids tombstones.
+     */
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (msbs[next] != 0L || lsbs[next] != 0L) {
+            int home = hash(msbs[next], lsbs[next]) & mask;
+            // Move the entry into the gap unless its home lies between the gap and its slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                msbs[gap] = msbs[next];
+                lsbs[gap] = lsbs[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        msbs[gap] = 0L;
+        lsbs[gap] = 0L;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        mask = capacity - 1;
+        if (oldMsbs == null) {
+            return;
+        }
+        for (int i = 0; i < oldMsbs.length; i++) {
+            if (oldMsbs[i] != 0L || oldLsbs[i] != 0L) {
+                int slot = ~find(oldMsbs[i], oldLsbs[i]);
+                msbs[slot] = oldMsbs[i];
+                lsbs[slot] = oldLsbs[i];
+            }
+        }
+    }
+
+    private static int capacityFor(int expected) {
+        if (expected > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException("too many entries: " + expected);
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < (long) expected * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long msb, long lsb) {
+        // Random UUIDs are already well mixed; fold and finalise anyway for
+        // name-based or sequential ones
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,119 @@
+package com.yourorg.hardcorerevival.util;
+
+import com.yourorg.hardcorerevival.HardcoreRevivalPlugin;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of failed altar validations keyed by altar centre. A
+ * player repeatedly placing heads on the same broken altar gets the cached
+ * error instead of a full {@link AltarValidator#validate} run. Entries expire
+ * after antiSpam.failureCacheSeconds and are dropped as soon as a block or
+ * chest inside the altar footprint changes.
+ */
+public class ValidationCache {
+    private final HardcoreRevivalPlugin plugin;
+    private final Map<String, Entry> failures = new ConcurrentHashMap<>();
+
+    private record Entry(String errorKey, long expiresAt) {
+    }
+
+    public ValidationCache(HardcoreRevivalPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Looks up a cached failure for an altar.
+     *
+     * @param altarKey serialised altar centre
+     * @return the cached error key, or null if none is cached
+     */
+    public String getFailure(String altarKey) {
+        Entry entry = failures.get(altarKey);
+        if (entry == null) {
+            plugin.getMetrics().increment("validation.cache.miss");
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt()) {
+            failures.remove(altarKey, entry);
+            plugin.getMetrics().increment("validation.cache.miss");
+            return null;
+        }
+        plugin.getMetrics().increment("validation.cache.hit");
+        return entry.errorKey();
+    }
+
+    /**
+     * Caches a validation failure for an altar. Does nothing when caching is
+     * disabled.
+     *
+     * @param altarKey serialised altar centre
+     * @param errorKey the failure's error key
+     */
+    public void putFailure(String altarKey, String errorKey) {
+        long ttlMillis = plugin.getConfig().getLong("antiSpam.failureCacheSeconds", 5L) * 1000L;
+        if (ttlMillis <= 0) {
+            return;
+        }
+        failures.put(altarKey, new Entry(errorKey, System.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * Drops cached failures for every altar whose footprint contains the
+     * given block. The footprint spans the gold layer at the centre's Y and
+     * the chest and fence layer above it, one block out in each direction.
+     *
+     * @param block the block that changed
+     */
+    public void invalidate(Block block) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        invalidate(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Location variant of {@link #invalidate(Block)}, used for inventories.
+     *
+     * @param location location of the changed block
+     */
+    public void invalidate(Location location) {
+        if (failures.isEmpty() || location == null || location.getWorld() == null) {
+            return;
+        }
+        invalidate(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private void invalidate(String world, int x, int y, int z) {
+        for (int dy = 0; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    String key = world + ":" + (x - dx) + ":" + (y - dy) + ":" + (z - dz);
+                    if (failures.remove(key) != null) {
+                        plugin.getMetrics().increment("validation.cache.invalidated");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether any failure is cached, letting callers skip work on
+     * busy events such as hopper transfers.
+     *
+     * @return true if the cache holds no entries
+     */
+    public boolean isEmpty() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Drops every cached failure, e.g. after the configuration changed.
+     */
+    public void clear() {
+        failures.clear();
+    }
+}